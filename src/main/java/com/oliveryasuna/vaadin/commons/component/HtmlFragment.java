@@ -0,0 +1,213 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.oliveryasuna.vaadin.commons.component;
+
+import com.oliveryasuna.commons.language.condition.Arguments;
+import com.vaadin.flow.component.Tag;
+import org.jsoup.Jsoup;
+import org.jsoup.safety.Whitelist;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A read-only fragment of HTML, held as the single {@code innerHTML} property of a {@code <div>}.
+ * <p>
+ * Unlike a tree of {@link HtmlComponentBase}s and {@link HtmlContainerBase}s, a fragment costs one state node regardless of its markup.
+ * The markup is sanitized with jsoup, by default with {@link Whitelist#relaxed()}, which removes scripts and event handler attributes.
+ * The markup is not parsed on the server afterwards, so the fragment has no child components and no listeners for its content.
+ * <p>
+ * Fragments may opt in to a cache shared by all sessions, keyed by a hash of the unsanitized markup.
+ * Cached fragments with the same markup are sanitized once and share a single string, instead of each session holding its own copy.
+ *
+ * @author Oliver Yasuna
+ * @since 3.0.0
+ */
+@Tag(Tag.DIV)
+public class HtmlFragment extends HtmlComponentBase {
+
+  // Static fields
+  //--------------------------------------------------
+
+  private static final String INNER_HTML_PROPERTY = "innerHTML";
+
+  /**
+   * The maximum number of sanitized fragments in the cache.
+   */
+  static final int CACHE_SIZE = 1024;
+
+  /**
+   * Sanitized markup, by hash of the unsanitized markup, in access order.
+   */
+  private static final Map<String, String> CACHE = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(final Map.Entry<String, String> eldest) {
+      return (size() > CACHE_SIZE);
+    }
+  });
+
+  // Static utility methods
+  //--------------------------------------------------
+
+  /**
+   * Discards all cached fragments.
+   * Fragments already showing cached markup keep it.
+   */
+  public static void clearCache() {
+    CACHE.clear();
+  }
+
+  /**
+   * Gets the number of cached fragments.
+   */
+  static int cacheSize() {
+    return CACHE.size();
+  }
+
+  private static String sanitizeCached(final String html) {
+    final String key = hash(html);
+    final String cachedHtml = CACHE.get(key);
+
+    if(cachedHtml != null) return cachedHtml;
+
+    // Sanitized outside of the lock; if another session raced, its string is shared instead.
+    final String sanitized = Jsoup.clean(html, Whitelist.relaxed());
+    final String existing = CACHE.putIfAbsent(key, sanitized);
+
+    return (existing != null ? existing : sanitized);
+  }
+
+  private static String hash(final String html) {
+    final MessageDigest digest;
+
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch(final NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+
+    return Base64.getEncoder().encodeToString(digest.digest(html.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  // Constructors
+  //--------------------------------------------------
+
+  /**
+   * Creates an empty fragment that does not use the cache.
+   */
+  public HtmlFragment() {
+    super();
+  }
+
+  /**
+   * Creates a fragment that does not use the cache.
+   *
+   * @param html The markup, which is sanitized.
+   */
+  public HtmlFragment(final String html) {
+    this(html, false);
+  }
+
+  /**
+   * Creates a fragment.
+   *
+   * @param html   The markup, which is sanitized.
+   * @param cached Whether to use the cache.
+   */
+  public HtmlFragment(final String html, final boolean cached) {
+    super();
+
+    this.cached = cached;
+
+    setHtml(html);
+  }
+
+  // Fields
+  //--------------------------------------------------
+
+  private boolean cached;
+
+  // Methods
+  //--------------------------------------------------
+
+  /**
+   * Sets the markup, sanitized with {@link Whitelist#relaxed()}.
+   * If the fragment uses the cache, markup sanitized before is reused.
+   *
+   * @param html The markup, or {@code null}, to empty the fragment.
+   */
+  public void setHtml(final String html) {
+    if(html == null || html.isEmpty()) {
+      getElement().removeProperty(INNER_HTML_PROPERTY);
+
+      return;
+    }
+
+    getElement().setProperty(INNER_HTML_PROPERTY, (cached ? sanitizeCached(html) : Jsoup.clean(html, Whitelist.relaxed())));
+  }
+
+  /**
+   * Sets the markup, sanitized with a specific whitelist.
+   * The cache is not used, as it only holds markup sanitized with the default whitelist.
+   *
+   * @param html      The markup, or {@code null}, to empty the fragment.
+   * @param whitelist The whitelist.
+   */
+  public void setHtml(final String html, final Whitelist whitelist) {
+    Arguments.requireNotNull(whitelist);
+
+    if(html == null || html.isEmpty()) {
+      getElement().removeProperty(INNER_HTML_PROPERTY);
+
+      return;
+    }
+
+    getElement().setProperty(INNER_HTML_PROPERTY, Jsoup.clean(html, whitelist));
+  }
+
+  /**
+   * Gets the sanitized markup.
+   *
+   * @return The sanitized markup, or an empty string, if the fragment is empty.
+   */
+  public String getHtml() {
+    return getElement().getProperty(INNER_HTML_PROPERTY, "");
+  }
+
+  // Getters/setters
+  //--------------------------------------------------
+
+  public boolean isCached() {
+    return cached;
+  }
+
+  /**
+   * Sets whether the fragment uses the cache.
+   * Applies to markup set afterwards.
+   */
+  public void setCached(final boolean cached) {
+    this.cached = cached;
+  }
+
+}
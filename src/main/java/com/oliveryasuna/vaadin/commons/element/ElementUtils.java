@@ -21,10 +21,16 @@ package com.oliveryasuna.vaadin.commons.element;
 import com.oliveryasuna.commons.language.condition.Arguments;
 import com.oliveryasuna.commons.language.exception.UnsupportedInstantiationException;
 import com.oliveryasuna.commons.language.marker.Utility;
+import com.oliveryasuna.vaadin.commons.json.JsonConverter;
+import com.oliveryasuna.vaadin.commons.json.JsonConverters;
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.ComponentUtil;
 import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.internal.JsonUtils;
 import com.vaadin.flow.server.AbstractStreamResource;
 import elemental.json.JsonValue;
 
+import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Stream;
@@ -38,6 +44,11 @@ import java.util.stream.Stream;
 @Utility
 public final class ElementUtils {
 
+  // Static fields
+  //--------------------------------------------------
+
+  private static final String BEAN_DATA_KEY_PREFIX = ElementUtils.class.getName() + ".bean.";
+
   // Static utility methods
   //--------------------------------------------------
 
@@ -51,6 +62,8 @@ public final class ElementUtils {
    * @param slotName The name of the slot. If {@code null}, all children are returned.
    *
    * @return A stream of matched elements.
+   *
+   * @see SlotIndex
    */
   public static Stream<Element> getSlotted(final Element element, final String slotName) {
     Arguments.requireNotNull(element);
@@ -66,8 +79,22 @@ public final class ElementUtils {
    * @param slotName The name of the slot. Per {@link #getSlotted(Element, String)}, if {@code null}, all children are removed.
    */
   public static void clearSlot(final Element element, final String slotName) {
-    getSlotted(element, slotName)
-        .forEach(element::removeChild);
+    Arguments.requireNotNull(element);
+
+    if(slotName == null) {
+      element.removeAllChildren();
+
+      return;
+    }
+
+    // Collect first, as the children must not be removed while they are streamed.
+    final Element[] slotted = getSlotted(element, slotName).toArray(Element[]::new);
+
+    if(slotted.length == element.getChildCount()) {
+      element.removeAllChildren();
+    } else if(slotted.length != 0) {
+      element.removeChild(slotted);
+    }
   }
 
   // Attributes
@@ -203,6 +230,8 @@ public final class ElementUtils {
    * @param value   The value of the property. {@code null} removes the property.
    *
    * @return The element.
+   *
+   * @see #setPropertyBeanCached(Element, String, Object)
    */
   public static Element setPropertyBean(final Element element, final String name, final Object value) {
     Arguments.requireNotNull(element);
@@ -218,6 +247,53 @@ public final class ElementUtils {
     return setPropertyBean(element, name, value);
   }
 
+  /**
+   * Sets or removes an elements {@link Object} property, converting it with a cached {@link JsonConverter} instead of Flow's bean serialization.
+   * <p>
+   * Converters are built once per class by {@link JsonConverters}, so they follow its conventions rather than Jackson annotations.
+   * If the element belongs to a component, the bean is remembered, and setting an {@link Object#equals(Object) equal} bean again skips conversion.
+   * Beans must therefore not be mutated after being set; set a new instance instead.
+   * Otherwise, the converted bean is compared with the current value, and the property is only set if it changed.
+   *
+   * @param element The element.
+   * @param name    The name of the property.
+   * @param value   The value of the property. {@code null} removes the property.
+   *
+   * @return The element.
+   */
+  @SuppressWarnings("unchecked")
+  public static Element setPropertyBeanCached(final Element element, final String name, final Object value) {
+    Arguments.requireNotNull(element);
+    Arguments.requireNotNull(name);
+
+    final Component component = element.getComponent().orElse(null);
+    final String dataKey = BEAN_DATA_KEY_PREFIX + name;
+
+    if(value == null) {
+      if(component != null) ComponentUtil.setData(component, dataKey, null);
+
+      return element.removeProperty(name);
+    }
+
+    final Serializable current = (element.hasProperty(name) ? element.getPropertyRaw(name) : null);
+    final BeanProperty previous = (component != null ? (BeanProperty)ComponentUtil.getData(component, dataKey) : null);
+
+    // The identity check detects the property being set otherwise since.
+    if(previous != null && previous.json == current && value.equals(previous.bean)) return element;
+
+    final JsonValue json = ((JsonConverter<Object>)JsonConverters.forClass(value.getClass())).toJson(value);
+
+    if(current instanceof JsonValue && JsonUtils.jsonEquals(json, (JsonValue)current)) {
+      if(component != null) ComponentUtil.setData(component, dataKey, new BeanProperty(value, (JsonValue)current));
+    } else {
+      element.setPropertyJson(name, json);
+
+      if(component != null) ComponentUtil.setData(component, dataKey, new BeanProperty(value, json));
+    }
+
+    return element;
+  }
+
   /**
    * Sets or removes an elements {@link List} property.
    *
@@ -226,6 +302,8 @@ public final class ElementUtils {
    * @param value   The value of the property. {@code null} removes the property.
    *
    * @return The element.
+   *
+   * @see ListPropertyBinding
    */
   public static <T> Element setPropertyList(final Element element, final String name, final List<T> value) {
     Arguments.requireNotNull(element);
@@ -249,6 +327,8 @@ public final class ElementUtils {
    * @param value   The value of the property. {@code null} removes the property.
    *
    * @return The element.
+   *
+   * @see MapPropertyBinding
    */
   public static Element setPropertyMap(final Element element, final String name, final Map<String, ?> value) {
     Arguments.requireNotNull(element);
@@ -264,6 +344,126 @@ public final class ElementUtils {
     return setPropertyMap(element, name, value);
   }
 
+  // Bulk
+  //
+
+  /**
+   * Sets or removes attributes and properties of an element, skipping those that already have the given value.
+   * <p>
+   * Unchanged values do not mark the element's state node as dirty, so applying the same values again sends nothing to the client.
+   * <p>
+   * Attribute values may be {@link String}s, {@link Boolean}s or {@link AbstractStreamResource}s, as accepted by the {@code setAttribute} methods.
+   * Stream resources are always set.
+   * Property values may be {@link String}s, {@link Boolean}s, {@link Number}s, {@link JsonValue}s, {@link List}s, {@link Map}s or beans, as accepted by
+   * the {@code setProperty} methods.
+   * Lists, maps and beans are converted to JSON to compare them.
+   * In both maps, {@code null} removes the attribute or property.
+   *
+   * @param element    The element.
+   * @param attributes The attributes, by name, or {@code null}.
+   * @param properties The properties, by name, or {@code null}.
+   *
+   * @return The number of attributes and properties that were changed.
+   */
+  public static int apply(final Element element, final Map<String, ?> attributes, final Map<String, ?> properties) {
+    Arguments.requireNotNull(element);
+
+    int changeCount = 0;
+
+    if(attributes != null) {
+      for(final Map.Entry<String, ?> attribute : attributes.entrySet()) {
+        if(applyAttribute(element, attribute.getKey(), attribute.getValue())) changeCount++;
+      }
+    }
+
+    if(properties != null) {
+      for(final Map.Entry<String, ?> property : properties.entrySet()) {
+        if(applyProperty(element, property.getKey(), property.getValue())) changeCount++;
+      }
+    }
+
+    return changeCount;
+  }
+
+  /**
+   * @return Whether the attribute was changed.
+   */
+  private static boolean applyAttribute(final Element element, final String name, final Object value) {
+    Arguments.requireNotNull(name);
+
+    if(value == null || Boolean.FALSE.equals(value)) {
+      if(!element.hasAttribute(name)) return false;
+
+      element.removeAttribute(name);
+    } else if(value instanceof String || value instanceof Boolean) {
+      // Per Element#setAttribute(String, boolean), true is an empty attribute.
+      final String string = (value instanceof String ? (String)value : "");
+
+      if(element.hasAttribute(name) && string.equals(element.getAttribute(name))) return false;
+
+      element.setAttribute(name, string);
+    } else if(value instanceof AbstractStreamResource) {
+      element.setAttribute(name, (AbstractStreamResource)value);
+    } else {
+      throw new IllegalArgumentException("Unsupported type of attribute " + name + ": " + value.getClass().getName() + ".");
+    }
+
+    return true;
+  }
+
+  /**
+   * @return Whether the property was changed.
+   */
+  @SuppressWarnings("unchecked")
+  private static boolean applyProperty(final Element element, final String name, final Object value) {
+    Arguments.requireNotNull(name);
+
+    if(value == null) {
+      if(!element.hasProperty(name)) return false;
+
+      element.removeProperty(name);
+
+      return true;
+    }
+
+    final Serializable current = (element.hasProperty(name) ? element.getPropertyRaw(name) : null);
+
+    if(value instanceof String || value instanceof Boolean) {
+      if(value.equals(current)) return false;
+
+      if(value instanceof String) {
+        element.setProperty(name, (String)value);
+      } else {
+        element.setProperty(name, (Boolean)value);
+      }
+    } else if(value instanceof Number) {
+      // Element#setProperty(String, double) stores numbers as doubles.
+      final Double number = ((Number)value).doubleValue();
+
+      if(number.equals(current)) return false;
+
+      element.setProperty(name, number);
+    } else {
+      final JsonValue json;
+
+      if(value instanceof JsonValue) {
+        json = (JsonValue)value;
+      } else if(value instanceof List) {
+        json = JsonUtils.listToJson((List<?>)value);
+      } else if(value instanceof Map) {
+        json = JsonUtils.mapToJson((Map<String, ?>)value);
+      } else {
+        json = JsonUtils.beanToJson(value);
+      }
+
+      if(current instanceof JsonValue && JsonUtils.jsonEquals(json, (JsonValue)current)) return false;
+
+      element.setPropertyJson(name, json);
+    }
+
+    return true;
+  }
+
   // Constructors
   //--------------------------------------------------
 
@@ -273,4 +473,33 @@ public final class ElementUtils {
     throw new UnsupportedInstantiationException();
   }
 
+  // Nested
+  //--------------------------------------------------
+
+  /**
+   * A bean set by {@link #setPropertyBeanCached(Element, String, Object)} and the JSON value it was set as.
+   *
+   * @author Oliver Yasuna
+   */
+  private static final class BeanProperty implements Serializable {
+
+    // Constructors
+    //--------------------------------------------------
+
+    private BeanProperty(final Object bean, final JsonValue json) {
+      super();
+
+      this.bean = bean;
+      this.json = json;
+    }
+
+    // Fields
+    //--------------------------------------------------
+
+    private final Object bean;
+
+    private final JsonValue json;
+
+  }
+
 }
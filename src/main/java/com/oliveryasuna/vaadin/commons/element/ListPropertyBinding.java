@@ -0,0 +1,348 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.oliveryasuna.vaadin.commons.element;
+
+import com.oliveryasuna.commons.language.condition.Arguments;
+import com.oliveryasuna.vaadin.commons.json.JsonConverter;
+import com.oliveryasuna.vaadin.commons.json.JsonConverters;
+import com.vaadin.flow.dom.Element;
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonValue;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A list bound to an array property of an element, which sends changes to the client as patches instead of the whole array.
+ * <p>
+ * Each change is recorded as a splice, i.e., a range of items removed and a range of items inserted in its place.
+ * Splices are sent once per server response and applied to a copy of the array in the browser, which is then assigned to the property.
+ * Consecutive insertions and replacements of recently inserted items are merged, and when the splices would be larger than the list, the whole array
+ * is sent instead.
+ * <p>
+ * Items are converted with {@link JsonConverters} when they are sent, so items changed in place are only sent if they are also {@link #set(int, Object)
+ * set} again.
+ * The property is managed by the binding alone; it must not be set otherwise, and {@link Element#getProperty(String)} does not reflect it.
+ *
+ * @param <T> The type of item.
+ *
+ * @author Oliver Yasuna
+ * @see ElementUtils#setPropertyList(Element, String, List)
+ * @since 3.0.0
+ */
+public class ListPropertyBinding<T> extends AbstractList<T> implements RandomAccess, Serializable {
+
+  // Static fields
+  //--------------------------------------------------
+
+  /**
+   * Applies splices in place, except for large insertions: spreading them into arguments would exceed the argument limit of the engine, so the array is
+   * rebuilt around them instead.
+   */
+  private static final String PATCH_SCRIPT = "let a=(this[$0]||[]).slice();"
+      + "for(const p of $1){if(p[2].length<8192)a.splice(p[0],p[1],...p[2]);else a=a.slice(0,p[0]).concat(p[2],a.slice(p[0]+p[1]));}this[$0]=a;";
+
+  // Constructors
+  //--------------------------------------------------
+
+  /**
+   * @param element  The element.
+   * @param name     The name of the property.
+   * @param itemType The class of items.
+   * @param items    The initial items.
+   */
+  public ListPropertyBinding(final Element element, final String name, final Class<T> itemType, final Collection<? extends T> items) {
+    super();
+
+    Arguments.requireNotNull(element);
+    Arguments.requireNotNull(name);
+    Arguments.requireNotNull(itemType);
+    Arguments.requireNotNull(items);
+
+    this.itemType = itemType;
+    this.items = new ArrayList<>(items);
+    this.sync = new PropertyPatchSync(element, name, PATCH_SCRIPT, new Source());
+  }
+
+  /**
+   * Binds an empty list.
+   *
+   * @see #ListPropertyBinding(Element, String, Class, Collection)
+   */
+  public ListPropertyBinding(final Element element, final String name, final Class<T> itemType) {
+    this(element, name, itemType, Collections.emptyList());
+  }
+
+  // Fields
+  //--------------------------------------------------
+
+  private final Class<T> itemType;
+
+  private final List<T> items;
+
+  private final PropertyPatchSync sync;
+
+  /**
+   * Splices since the last flush, in order.
+   */
+  private final List<Splice<T>> splices = new ArrayList<>();
+
+  /**
+   * The number of splices plus the number of items they insert.
+   */
+  private int spliceWeight;
+
+  // Methods
+  //--------------------------------------------------
+
+  /**
+   * Sends the whole array on the next flush, such as after items were changed in place.
+   */
+  public void refresh() {
+    splices.clear();
+    spliceWeight = 0;
+
+    sync.reset();
+  }
+
+  private void splice(final int index, final int deleteCount, final List<T> inserted) {
+    if(!splices.isEmpty()) {
+      final Splice<T> last = splices.get(splices.size() - 1);
+      final int lastEnd = (last.index + last.inserted.size());
+
+      if(deleteCount == 0 && index == lastEnd) {
+        // Insertion right after the last insertion, such as consecutive add().
+        last.inserted.addAll(inserted);
+        spliceWeight += inserted.size();
+
+        sync.changed();
+
+        return;
+      }
+
+      if(deleteCount == inserted.size() && index >= last.index && index + deleteCount <= lastEnd) {
+        // Replacement of items inserted by the last splice.
+        for(int i = 0; i < deleteCount; i++) last.inserted.set(index - last.index + i, inserted.get(i));
+
+        sync.changed();
+
+        return;
+      }
+    }
+
+    splices.add(new Splice<>(index, deleteCount, new ArrayList<>(inserted)));
+    spliceWeight += (1 + inserted.size());
+
+    if(spliceWeight > items.size()) {
+      refresh();
+    } else {
+      sync.changed();
+    }
+  }
+
+  // Overrides
+  //--------------------------------------------------
+
+  // AbstractList
+  //
+
+  @Override
+  public T get(final int index) {
+    return items.get(index);
+  }
+
+  @Override
+  public int size() {
+    return items.size();
+  }
+
+  @Override
+  public T set(final int index, final T element) {
+    final T previous = items.set(index, element);
+
+    splice(index, 1, Collections.singletonList(element));
+
+    return previous;
+  }
+
+  @Override
+  public void add(final int index, final T element) {
+    items.add(index, element);
+    modCount++;
+
+    splice(index, 0, Collections.singletonList(element));
+  }
+
+  @Override
+  public boolean addAll(final Collection<? extends T> collection) {
+    return addAll(items.size(), collection);
+  }
+
+  @Override
+  public boolean addAll(final int index, final Collection<? extends T> collection) {
+    final List<T> inserted = new ArrayList<>(collection);
+
+    if(!items.addAll(index, inserted)) return false;
+
+    modCount++;
+
+    splice(index, 0, inserted);
+
+    return true;
+  }
+
+  @Override
+  public T remove(final int index) {
+    final T previous = items.remove(index);
+
+    modCount++;
+
+    splice(index, 1, Collections.emptyList());
+
+    return previous;
+  }
+
+  @Override
+  public void clear() {
+    items.clear();
+    modCount++;
+
+    refresh();
+  }
+
+  @Override
+  protected void removeRange(final int fromIndex, final int toIndex) {
+    if(fromIndex == toIndex) return;
+
+    items.subList(fromIndex, toIndex).clear();
+    modCount++;
+
+    splice(fromIndex, toIndex - fromIndex, Collections.emptyList());
+  }
+
+  // Getters
+  //--------------------------------------------------
+
+  public Class<T> getItemType() {
+    return itemType;
+  }
+
+  // Nested
+  //--------------------------------------------------
+
+  /**
+   * Items removed and inserted at an index.
+   *
+   * @author Oliver Yasuna
+   */
+  private static final class Splice<T> implements Serializable {
+
+    // Constructors
+    //--------------------------------------------------
+
+    private Splice(final int index, final int deleteCount, final List<T> inserted) {
+      super();
+
+      this.index = index;
+      this.deleteCount = deleteCount;
+      this.inserted = inserted;
+    }
+
+    // Fields
+    //--------------------------------------------------
+
+    private final int index;
+
+    private final int deleteCount;
+
+    private final List<T> inserted;
+
+  }
+
+  /**
+   * Converts the list and its splices to JSON.
+   *
+   * @author Oliver Yasuna
+   */
+  private final class Source implements PropertyPatchSync.Source {
+
+    // Constructors
+    //--------------------------------------------------
+
+    private Source() {
+      super();
+    }
+
+    // Methods
+    //--------------------------------------------------
+
+    private JsonArray toJson(final List<T> values, final JsonConverter<T> converter) {
+      final JsonArray array = Json.createArray();
+
+      for(final T value : values) array.set(array.length(), converter.toJson(value));
+
+      return array;
+    }
+
+    // Overrides
+    //--------------------------------------------------
+
+    // PropertyPatchSync.Source
+    //
+
+    @Override
+    public JsonValue toJson() {
+      return toJson(items, JsonConverters.forClass(itemType));
+    }
+
+    @Override
+    public JsonArray takePatches() {
+      final JsonConverter<T> converter = JsonConverters.forClass(itemType);
+      final JsonArray patches = Json.createArray();
+
+      for(final Splice<T> splice : splices) {
+        final JsonArray patch = Json.createArray();
+
+        patch.set(0, splice.index);
+        patch.set(1, splice.deleteCount);
+        patch.set(2, toJson(splice.inserted, converter));
+
+        patches.set(patches.length(), patch);
+      }
+
+      discardPatches();
+
+      return patches;
+    }
+
+    @Override
+    public void discardPatches() {
+      splices.clear();
+      spliceWeight = 0;
+    }
+
+  }
+
+}
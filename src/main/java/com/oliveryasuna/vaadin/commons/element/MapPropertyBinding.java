@@ -0,0 +1,259 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.oliveryasuna.vaadin.commons.element;
+
+import com.oliveryasuna.commons.language.condition.Arguments;
+import com.oliveryasuna.vaadin.commons.json.JsonConverter;
+import com.oliveryasuna.vaadin.commons.json.JsonConverters;
+import com.vaadin.flow.dom.Element;
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+import elemental.json.JsonValue;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A map bound to an object property of an element, which sends changes to the client as patches instead of the whole object.
+ * <p>
+ * Changed keys are collected and sent once per server response, each with its current value or as deleted.
+ * The patches are applied to a copy of the object in the browser, which is then assigned to the property.
+ * When more keys changed than the map has, the whole object is sent instead.
+ * <p>
+ * Values are converted with {@link JsonConverters} when they are sent, so values changed in place are only sent if they are also {@link #put(String,
+ * Object) put} again.
+ * The map cannot be modified through its views.
+ * The property is managed by the binding alone; it must not be set otherwise, and {@link Element#getProperty(String)} does not reflect it.
+ *
+ * @param <V> The type of value.
+ *
+ * @author Oliver Yasuna
+ * @see ElementUtils#setPropertyMap(Element, String, Map)
+ * @since 3.0.0
+ */
+public class MapPropertyBinding<V> extends AbstractMap<String, V> implements Serializable {
+
+  // Static fields
+  //--------------------------------------------------
+
+  /**
+   * Copies the object and applies the patches to the copy.
+   * Keys are defined rather than assigned, as assigning a {@code __proto__} key, whether copied or patched, would replace the prototype of the copy.
+   */
+  private static final String PATCH_SCRIPT = "const s=this[$0];const o={};"
+      + "const d=(k,v)=>Object.defineProperty(o,k,{value:v,writable:true,enumerable:true,configurable:true});"
+      + "if(s)for(const k of Object.keys(s))d(k,s[k]);"
+      + "for(const p of $1){if(p.length>1)d(p[0],p[1]);else delete o[p[0]];}this[$0]=o;";
+
+  // Constructors
+  //--------------------------------------------------
+
+  /**
+   * @param element   The element.
+   * @param name      The name of the property.
+   * @param valueType The class of values.
+   * @param entries   The initial entries.
+   */
+  public MapPropertyBinding(final Element element, final String name, final Class<V> valueType, final Map<String, ? extends V> entries) {
+    super();
+
+    Arguments.requireNotNull(element);
+    Arguments.requireNotNull(name);
+    Arguments.requireNotNull(valueType);
+    Arguments.requireNotNull(entries);
+
+    this.valueType = valueType;
+    this.entries = new LinkedHashMap<>(entries);
+    this.sync = new PropertyPatchSync(element, name, PATCH_SCRIPT, new Source());
+  }
+
+  /**
+   * Binds an empty map.
+   *
+   * @see #MapPropertyBinding(Element, String, Class, Map)
+   */
+  public MapPropertyBinding(final Element element, final String name, final Class<V> valueType) {
+    this(element, name, valueType, Collections.emptyMap());
+  }
+
+  // Fields
+  //--------------------------------------------------
+
+  private final Class<V> valueType;
+
+  private final Map<String, V> entries;
+
+  private final PropertyPatchSync sync;
+
+  /**
+   * Keys changed since the last flush, in order of their first change.
+   */
+  private final Set<String> changedKeys = new LinkedHashSet<>();
+
+  // Methods
+  //--------------------------------------------------
+
+  /**
+   * Sends the whole object on the next flush, such as after values were changed in place.
+   */
+  public void refresh() {
+    changedKeys.clear();
+
+    sync.reset();
+  }
+
+  private void changed(final String key) {
+    changedKeys.add(key);
+
+    if(changedKeys.size() > entries.size()) {
+      refresh();
+    } else {
+      sync.changed();
+    }
+  }
+
+  // Overrides
+  //--------------------------------------------------
+
+  // AbstractMap
+  //
+
+  @Override
+  public V get(final Object key) {
+    return entries.get(key);
+  }
+
+  @Override
+  public boolean containsKey(final Object key) {
+    return entries.containsKey(key);
+  }
+
+  @Override
+  public int size() {
+    return entries.size();
+  }
+
+  @Override
+  public V put(final String key, final V value) {
+    Arguments.requireNotNull(key);
+
+    final V previous = entries.put(key, value);
+
+    changed(key);
+
+    return previous;
+  }
+
+  @Override
+  public V remove(final Object key) {
+    if(!entries.containsKey(key)) return null;
+
+    final V previous = entries.remove(key);
+
+    changed((String)key);
+
+    return previous;
+  }
+
+  @Override
+  public void clear() {
+    entries.clear();
+
+    refresh();
+  }
+
+  @Override
+  public Set<Entry<String, V>> entrySet() {
+    return Collections.unmodifiableMap(entries).entrySet();
+  }
+
+  // Getters
+  //--------------------------------------------------
+
+  public Class<V> getValueType() {
+    return valueType;
+  }
+
+  // Nested
+  //--------------------------------------------------
+
+  /**
+   * Converts the map and its changed keys to JSON.
+   *
+   * @author Oliver Yasuna
+   */
+  private final class Source implements PropertyPatchSync.Source {
+
+    // Constructors
+    //--------------------------------------------------
+
+    private Source() {
+      super();
+    }
+
+    // Overrides
+    //--------------------------------------------------
+
+    // PropertyPatchSync.Source
+    //
+
+    @Override
+    public JsonValue toJson() {
+      final JsonConverter<V> converter = JsonConverters.forClass(valueType);
+      final JsonObject object = Json.createObject();
+
+      for(final Entry<String, V> entry : entries.entrySet()) object.put(entry.getKey(), converter.toJson(entry.getValue()));
+
+      return object;
+    }
+
+    @Override
+    public JsonArray takePatches() {
+      final JsonConverter<V> converter = JsonConverters.forClass(valueType);
+      final JsonArray patches = Json.createArray();
+
+      for(final String key : changedKeys) {
+        final JsonArray patch = Json.createArray();
+
+        patch.set(0, key);
+
+        if(entries.containsKey(key)) patch.set(1, converter.toJson(entries.get(key)));
+
+        patches.set(patches.length(), patch);
+      }
+
+      changedKeys.clear();
+
+      return patches;
+    }
+
+    @Override
+    public void discardPatches() {
+      changedKeys.clear();
+    }
+
+  }
+
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.oliveryasuna.vaadin.commons.element;
+
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.internal.StateTree;
+import elemental.json.JsonArray;
+import elemental.json.JsonValue;
+
+import java.io.Serializable;
+
+/**
+ * Synchronizes a property of an element that is updated with patches, for {@link ListPropertyBinding} and {@link MapPropertyBinding}.
+ * <p>
+ * Patches are sent at most once per server response, from {@link StateTree#beforeClientResponse(com.vaadin.flow.internal.StateNode,
+ * com.vaadin.flow.function.SerializableConsumer)}.
+ * The property is not stored in the state node, so the full value is sent whenever the element is attached, and whenever the source asks for it.
+ *
+ * @author Oliver Yasuna
+ * @since 3.0.0
+ */
+final class PropertyPatchSync implements Serializable {
+
+  // Constructors
+  //--------------------------------------------------
+
+  /**
+   * @param patchScript A script applying the patches in {@code $1} to the property named {@code $0} of {@code this}.
+   */
+  PropertyPatchSync(final Element element, final String name, final String patchScript, final Source source) {
+    super();
+
+    this.element = element;
+    this.name = name;
+    this.patchScript = patchScript;
+    this.source = source;
+
+    element.addAttachListener(event -> reset());
+
+    reset();
+  }
+
+  // Fields
+  //--------------------------------------------------
+
+  private final Element element;
+
+  private final String name;
+
+  private final String patchScript;
+
+  private final Source source;
+
+  /**
+   * Whether the full value is sent on the next flush.
+   */
+  private boolean resetPending;
+
+  private StateTree.ExecutionRegistration flushRegistration;
+
+  // Methods
+  //--------------------------------------------------
+
+  /**
+   * Schedules sending the patches of the source.
+   */
+  void changed() {
+    // Patches of a detached element are useless, as it gets the full value when it is attached.
+    if(!element.getNode().isAttached()) resetPending = true;
+
+    scheduleFlush();
+  }
+
+  /**
+   * Schedules sending the full value instead of patches.
+   */
+  void reset() {
+    resetPending = true;
+
+    scheduleFlush();
+  }
+
+  private void scheduleFlush() {
+    if(flushRegistration != null || !element.getNode().isAttached()) return;
+
+    element.getNode().runWhenAttached(ui -> flushRegistration = ui.getInternals().getStateTree()
+        .beforeClientResponse(element.getNode(), context -> flush()));
+  }
+
+  private void flush() {
+    flushRegistration = null;
+
+    if(resetPending) {
+      resetPending = false;
+
+      source.discardPatches();
+      element.executeJs("this[$0]=$1;", name, source.toJson());
+
+      return;
+    }
+
+    final JsonArray patches = source.takePatches();
+
+    if(patches.length() != 0) element.executeJs(patchScript, name, patches);
+  }
+
+  // Nested
+  //--------------------------------------------------
+
+  /**
+   * The server-side value of a property.
+   *
+   * @author Oliver Yasuna
+   */
+  interface Source extends Serializable {
+
+    /**
+     * Converts the full value to JSON.
+     */
+    JsonValue toJson();
+
+    /**
+     * Converts the patches since the last flush to JSON and discards them.
+     */
+    JsonArray takePatches();
+
+    /**
+     * Discards the patches since the last flush.
+     */
+    void discardPatches();
+
+  }
+
+}
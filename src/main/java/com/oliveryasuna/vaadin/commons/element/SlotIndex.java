@@ -0,0 +1,241 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.oliveryasuna.vaadin.commons.element;
+
+import com.oliveryasuna.commons.language.condition.Arguments;
+import com.vaadin.flow.dom.Element;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An index of the slotted children of an element, by slot name.
+ * <p>
+ * Looking up the children of a slot takes constant time, instead of scanning all children as {@link ElementUtils#getSlotted(Element, String)} does.
+ * Flow offers no hook for changes to the children of an element, so the index is kept current by adding, moving and removing children through it.
+ * Children added or removed otherwise are detected by a change of the number of children, in which case the index is rebuilt on the next access.
+ * <p>
+ * Changes that do not change the number of children are not detected, so that lookups need not check each child: children added, removed or moved to
+ * another parent other than through the index while as many others were added or removed, and slots changed other than with
+ * {@link #setSlot(Element, String)}.
+ * {@link #refresh()} must be called after such changes.
+ * {@link #clearSlot(String)} still removes only children of the element.
+ * <p>
+ * Children of a slot are in the order they were indexed, which is the order of children when the index was rebuilt, followed by children added later.
+ * Children without a slot are not indexed.
+ *
+ * @author Oliver Yasuna
+ * @since 3.0.0
+ */
+public class SlotIndex implements Serializable {
+
+  // Static fields
+  //--------------------------------------------------
+
+  private static final String SLOT_ATTRIBUTE = "slot";
+
+  // Constructors
+  //--------------------------------------------------
+
+  /**
+   * @param element The parent element.
+   */
+  public SlotIndex(final Element element) {
+    super();
+
+    Arguments.requireNotNull(element);
+
+    this.element = element;
+  }
+
+  // Fields
+  //--------------------------------------------------
+
+  private final Element element;
+
+  private final Map<String, Set<Element>> slots = new HashMap<>();
+
+  /**
+   * The number of children of the element when the index was last current, or {@code -1}, if the index was never built.
+   */
+  private int childCount = -1;
+
+  // Methods
+  //--------------------------------------------------
+
+  /**
+   * Gets the children in a slot.
+   *
+   * @param slotName The name of the slot.
+   *
+   * @return An unmodifiable view of the children in the slot.
+   */
+  public Collection<Element> getSlotted(final String slotName) {
+    Arguments.requireNotNull(slotName);
+
+    ensureCurrent();
+
+    final Set<Element> slotted = slots.get(slotName);
+
+    return (slotted != null ? Collections.unmodifiableSet(slotted) : Collections.emptySet());
+  }
+
+  /**
+   * Appends children to the element in a slot.
+   *
+   * @param slotName The name of the slot.
+   * @param children The children.
+   */
+  public void add(final String slotName, final Element... children) {
+    Arguments.requireNotNull(slotName);
+    Arguments.requireNotContainsSame(children, null);
+
+    ensureCurrent();
+
+    for(final Element child : children) {
+      if(element.equals(child.getParent())) unindex(child);
+
+      child.setAttribute(SLOT_ATTRIBUTE, slotName);
+    }
+
+    element.appendChild(children);
+
+    for(final Element child : children) {
+      slots.computeIfAbsent(slotName, key -> new LinkedHashSet<>()).add(child);
+    }
+
+    childCount = element.getChildCount();
+  }
+
+  /**
+   * Moves a child to another slot.
+   *
+   * @param child    The child.
+   * @param slotName The name of the slot, or {@code null}, to remove it from its slot.
+   */
+  public void setSlot(final Element child, final String slotName) {
+    Arguments.requireNotNull(child);
+
+    if(!element.equals(child.getParent())) throw new IllegalArgumentException("Element is not a child.");
+
+    ensureCurrent();
+
+    unindex(child);
+
+    if(slotName != null) {
+      child.setAttribute(SLOT_ATTRIBUTE, slotName);
+
+      slots.computeIfAbsent(slotName, key -> new LinkedHashSet<>()).add(child);
+    } else {
+      child.removeAttribute(SLOT_ATTRIBUTE);
+    }
+  }
+
+  /**
+   * Removes children from the element.
+   *
+   * @param children The children.
+   */
+  public void remove(final Element... children) {
+    Arguments.requireNotContainsSame(children, null);
+
+    ensureCurrent();
+
+    for(final Element child : children) unindex(child);
+
+    element.removeChild(children);
+
+    childCount = element.getChildCount();
+  }
+
+  /**
+   * Removes all children in a slot from the element at once.
+   *
+   * @param slotName The name of the slot.
+   */
+  public void clearSlot(final String slotName) {
+    Arguments.requireNotNull(slotName);
+
+    ensureCurrent();
+
+    final Set<Element> slotted = slots.remove(slotName);
+
+    if(slotted == null || slotted.isEmpty()) return;
+
+    // Removing is linear in the size of the slot anyway, so children moved away unnoticed are skipped rather than failing the removal.
+    final Element[] children = slotted.stream()
+        .filter(child -> element.equals(child.getParent()))
+        .toArray(Element[]::new);
+
+    if(children.length == element.getChildCount()) {
+      element.removeAllChildren();
+    } else if(children.length > 0) {
+      element.removeChild(children);
+    }
+
+    childCount = element.getChildCount();
+  }
+
+  /**
+   * Rebuilds the index from the children of the element.
+   * Must be called after changes not detected by the index; see {@link SlotIndex}.
+   */
+  public void refresh() {
+    slots.clear();
+
+    element.getChildren().forEach(child -> {
+      if(child.isTextNode()) return;
+
+      final String slotName = child.getAttribute(SLOT_ATTRIBUTE);
+
+      if(slotName != null) slots.computeIfAbsent(slotName, key -> new LinkedHashSet<>()).add(child);
+    });
+
+    childCount = element.getChildCount();
+  }
+
+  private void ensureCurrent() {
+    if(childCount != element.getChildCount()) refresh();
+  }
+
+  private void unindex(final Element child) {
+    if(child.isTextNode()) return;
+
+    final String slotName = child.getAttribute(SLOT_ATTRIBUTE);
+
+    if(slotName == null) return;
+
+    final Set<Element> slotted = slots.get(slotName);
+
+    if(slotted != null) slotted.remove(child);
+  }
+
+  // Getters
+  //--------------------------------------------------
+
+  public Element getElement() {
+    return element;
+  }
+
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.oliveryasuna.vaadin.commons.json;
+
+import elemental.json.JsonValue;
+
+/**
+ * Converts values of a type to and from elemental {@link JsonValue}s.
+ * <p>
+ * Converters are shared and cached by {@link JsonConverters}, so they are not {@link java.io.Serializable}.
+ * Look them up again rather than storing them in session-scoped objects.
+ *
+ * @param <T> The type of value.
+ *
+ * @author Oliver Yasuna
+ * @see JsonConverters
+ * @since 3.0.0
+ */
+public interface JsonConverter<T> {
+
+  /**
+   * Converts a value to JSON.
+   *
+   * @param value The value. May be {@code null}.
+   *
+   * @return The JSON value. If {@code value} is {@code null}, a JSON {@code null}.
+   */
+  JsonValue toJson(T value);
+
+  /**
+   * Converts JSON to a value.
+   *
+   * @param json The JSON value. May be {@code null}.
+   *
+   * @return The value. If {@code json} is {@code null} or a JSON {@code null}, {@code null}.
+   */
+  T fromJson(JsonValue json);
+
+}
@@ -0,0 +1,873 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.oliveryasuna.vaadin.commons.json;
+
+import com.oliveryasuna.commons.language.condition.Arguments;
+import com.oliveryasuna.commons.language.exception.UnsupportedInstantiationException;
+import com.oliveryasuna.commons.language.marker.Utility;
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+import elemental.json.JsonType;
+import elemental.json.JsonValue;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+/**
+ * Creates and caches {@link JsonConverter}s.
+ * <p>
+ * A converter is created once per class and cached for the lifetime of the class.
+ * Supported types are strings, primitives and their wrappers, {@link BigDecimal}s and {@link BigInteger}s (as strings), enums (by name),
+ * {@link JsonValue}s, arrays, {@link Collection}s, {@link Map}s with string keys and beans.
+ * Other subclasses of {@link Number}, such as {@link java.util.concurrent.atomic.AtomicLong}, are rejected.
+ * Bean properties are found with {@link Introspector}, and their accessors are resolved to {@link MethodHandle}s once, so no reflection happens per
+ * conversion.
+ * Converting a bean to JSON requires public getters; converting JSON to a bean also requires a public no-argument constructor and public setters.
+ * Collections and maps are converted from JSON to the class of the converter if it can be instantiated, and otherwise, such as for those returned by
+ * {@link List#of()} or {@link java.util.Collections#unmodifiableMap(Map)}, to an {@link ArrayList}, {@link LinkedHashSet}, {@link TreeSet},
+ * {@link LinkedHashMap} or {@link TreeMap}.
+ *
+ * @author Oliver Yasuna
+ * @since 3.0.0
+ */
+@Utility
+public final class JsonConverters {
+
+  // Static fields
+  //--------------------------------------------------
+
+  private static final Set<Class<?>> NUMBER_WRAPPERS = Set.of(Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class, Number.class);
+
+  private static final ClassValue<JsonConverter<?>> CONVERTERS = new ClassValue<>() {
+    @Override
+    protected JsonConverter<?> computeValue(final Class<?> type) {
+      return create(type);
+    }
+  };
+
+  // Static utility methods
+  //--------------------------------------------------
+
+  /**
+   * Gets the converter for a class.
+   *
+   * @param type The class.
+   * @param <T>  The type of value.
+   *
+   * @return The cached converter.
+   *
+   * @throws IllegalArgumentException If {@code type} is an unsupported subclass of {@link Number}.
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> JsonConverter<T> forClass(final Class<T> type) {
+    Arguments.requireNotNull(type);
+
+    return (JsonConverter<T>)CONVERTERS.get(type);
+  }
+
+  /**
+   * Gets the converter for a possibly generic type, such as {@code List<Foo>}.
+   * <p>
+   * Converters for plain classes are cached; converters for parameterized types are cheap wrappers around cached converters.
+   *
+   * @param type The type.
+   *
+   * @return The converter.
+   *
+   * @throws IllegalArgumentException If {@code type} is an unsupported subclass of {@link Number}.
+   */
+  public static JsonConverter<?> forType(final Type type) {
+    Arguments.requireNotNull(type);
+
+    if(type instanceof Class) return forClass((Class<?>)type);
+
+    if(type instanceof ParameterizedType) {
+      final Class<?> rawType = rawClass(type);
+      final Type[] typeArguments = ((ParameterizedType)type).getActualTypeArguments();
+
+      if(Collection.class.isAssignableFrom(rawType)) return new CollectionConverter(rawType, typeArguments[0]);
+      if(Map.class.isAssignableFrom(rawType)) return new MapConverter(rawType, typeArguments[1]);
+
+      return forClass(rawType);
+    }
+
+    if(type instanceof GenericArrayType) {
+      final Type componentType = ((GenericArrayType)type).getGenericComponentType();
+
+      return new ArrayConverter(rawClass(componentType), componentType);
+    }
+
+    // Type variables and wildcards.
+    return ObjectConverter.INSTANCE;
+  }
+
+  private static JsonConverter<?> create(final Class<?> type) {
+    if(type == String.class) return StringConverter.INSTANCE;
+    if(type == Object.class) return ObjectConverter.INSTANCE;
+    if(type == boolean.class || type == Boolean.class) return BooleanConverter.INSTANCE;
+    if(type == char.class || type == Character.class) return CharacterConverter.INSTANCE;
+    if(type.isPrimitive() || NUMBER_WRAPPERS.contains(type)) return new NumberConverter(type);
+    if(type == BigDecimal.class || type == BigInteger.class) return new BigNumberConverter(type);
+    if(Number.class.isAssignableFrom(type)) throw new IllegalArgumentException("Unsupported number type: " + type.getName() + ".");
+    if(type.isEnum()) return new EnumConverter(type);
+    if(JsonValue.class.isAssignableFrom(type)) return JsonValueConverter.INSTANCE;
+    if(type.isArray()) return new ArrayConverter(type.getComponentType(), type.getComponentType());
+    if(Collection.class.isAssignableFrom(type)) return new CollectionConverter(type, Object.class);
+    if(Map.class.isAssignableFrom(type)) return new MapConverter(type, Object.class);
+
+    return new BeanConverter(type);
+  }
+
+  private static Class<?> rawClass(final Type type) {
+    if(type instanceof Class) return (Class<?>)type;
+    if(type instanceof ParameterizedType) return (Class<?>)((ParameterizedType)type).getRawType();
+    if(type instanceof GenericArrayType) return Array.newInstance(rawClass(((GenericArrayType)type).getGenericComponentType()), 0).getClass();
+
+    return Object.class;
+  }
+
+  private static boolean isNull(final JsonValue json) {
+    return (json == null || json.getType() == JsonType.NULL);
+  }
+
+  private static MethodHandle unreflect(final Method method) {
+    try {
+      return MethodHandles.publicLookup().unreflect(method);
+    } catch(final IllegalAccessException e) {
+      throw new IllegalArgumentException("Cannot access " + method + ".", e);
+    }
+  }
+
+  /**
+   * Gets whether a class can be instantiated through {@link #noArgumentConstructor(Class)}.
+   */
+  private static boolean isInstantiable(final Class<?> type) {
+    return (Modifier.isPublic(type.getModifiers()) && !Modifier.isAbstract(type.getModifiers()) && hasNoArgumentConstructor(type));
+  }
+
+  private static boolean hasNoArgumentConstructor(final Class<?> type) {
+    try {
+      type.getConstructor();
+
+      return true;
+    } catch(final NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  /**
+   * @return A {@code ()Object} handle.
+   */
+  private static MethodHandle noArgumentConstructor(final Class<?> type) {
+    try {
+      final Constructor<?> constructor = type.getConstructor();
+
+      return MethodHandles.publicLookup().unreflectConstructor(constructor).asType(MethodType.methodType(Object.class));
+    } catch(final NoSuchMethodException | IllegalAccessException e) {
+      throw new IllegalArgumentException(type.getName() + " does not have a public no-argument constructor.", e);
+    }
+  }
+
+  private static RuntimeException rethrow(final Throwable throwable) {
+    if(throwable instanceof RuntimeException) return (RuntimeException)throwable;
+    if(throwable instanceof Error) throw (Error)throwable;
+
+    return new IllegalStateException(throwable);
+  }
+
+  // Constructors
+  //--------------------------------------------------
+
+  private JsonConverters() {
+    super();
+
+    throw new UnsupportedInstantiationException();
+  }
+
+  // Nested
+  //--------------------------------------------------
+
+  /**
+   * Resolves a converter on first use, so that recursive types do not recurse while their converters are created.
+   *
+   * @author Oliver Yasuna
+   */
+  private static final class LazyConverter {
+
+    // Constructors
+    //--------------------------------------------------
+
+    private LazyConverter(final Type type) {
+      super();
+
+      this.type = type;
+    }
+
+    // Fields
+    //--------------------------------------------------
+
+    private final Type type;
+
+    private volatile JsonConverter<Object> converter;
+
+    // Methods
+    //--------------------------------------------------
+
+    @SuppressWarnings("unchecked")
+    private JsonConverter<Object> get() {
+      JsonConverter<Object> result = converter;
+
+      if(result == null) converter = result = (JsonConverter<Object>)forType(type);
+
+      return result;
+    }
+
+  }
+
+  /**
+   * Converts {@link String}s.
+   *
+   * @author Oliver Yasuna
+   */
+  private static final class StringConverter implements JsonConverter<String> {
+
+    private static final StringConverter INSTANCE = new StringConverter();
+
+    @Override
+    public JsonValue toJson(final String value) {
+      return (value != null ? Json.create(value) : Json.createNull());
+    }
+
+    @Override
+    public String fromJson(final JsonValue json) {
+      return (!isNull(json) ? json.asString() : null);
+    }
+
+  }
+
+  /**
+   * Converts {@link Boolean}s.
+   *
+   * @author Oliver Yasuna
+   */
+  private static final class BooleanConverter implements JsonConverter<Boolean> {
+
+    private static final BooleanConverter INSTANCE = new BooleanConverter();
+
+    @Override
+    public JsonValue toJson(final Boolean value) {
+      return (value != null ? Json.create(value) : Json.createNull());
+    }
+
+    @Override
+    public Boolean fromJson(final JsonValue json) {
+      return (!isNull(json) ? json.asBoolean() : null);
+    }
+
+  }
+
+  /**
+   * Converts {@link Character}s, as strings of length one.
+   *
+   * @author Oliver Yasuna
+   */
+  private static final class CharacterConverter implements JsonConverter<Character> {
+
+    private static final CharacterConverter INSTANCE = new CharacterConverter();
+
+    @Override
+    public JsonValue toJson(final Character value) {
+      return (value != null ? Json.create(String.valueOf(value)) : Json.createNull());
+    }
+
+    @Override
+    public Character fromJson(final JsonValue json) {
+      if(isNull(json)) return null;
+
+      final String string = json.asString();
+
+      return (!string.isEmpty() ? string.charAt(0) : null);
+    }
+
+  }
+
+  /**
+   * Converts primitive numbers and their wrappers.
+   * Like all JSON numbers, values are transferred as {@code double}s, except {@code long}s beyond {@code 2^53}, which a {@code double} cannot hold exactly
+   * and are transferred as strings instead.
+   *
+   * @author Oliver Yasuna
+   */
+  private static final class NumberConverter implements JsonConverter<Object> {
+
+    /**
+     * The largest integer that a {@code double} holds exactly, {@code 2^53 - 1}.
+     */
+    private static final long MAX_SAFE_INTEGER = (1L << 53) - 1;
+
+    private NumberConverter(final Class<?> type) {
+      super();
+
+      this.type = type;
+    }
+
+    private final Class<?> type;
+
+    @Override
+    public JsonValue toJson(final Object value) {
+      if(value == null) return Json.createNull();
+
+      if(value instanceof Long) {
+        final long number = (Long)value;
+
+        if(number > MAX_SAFE_INTEGER || number < -MAX_SAFE_INTEGER) return Json.create(Long.toString(number));
+      }
+
+      return Json.create(((Number)value).doubleValue());
+    }
+
+    @Override
+    public Object fromJson(final JsonValue json) {
+      if(isNull(json)) return null;
+
+      if(json.getType() == JsonType.STRING && (type == long.class || type == Long.class)) return Long.parseLong(json.asString());
+
+      final double number = json.asNumber();
+
+      if(type == int.class || type == Integer.class) return (int)number;
+      if(type == long.class || type == Long.class) return (long)number;
+      if(type == short.class || type == Short.class) return (short)number;
+      if(type == byte.class || type == Byte.class) return (byte)number;
+      if(type == float.class || type == Float.class) return (float)number;
+
+      return number;
+    }
+
+  }
+
+  /**
+   * Converts {@link BigDecimal}s and {@link BigInteger}s.
+   * Values are transferred as strings, so that no precision is lost; JSON numbers are accepted too.
+   *
+   * @author Oliver Yasuna
+   */
+  private static final class BigNumberConverter implements JsonConverter<Object> {
+
+    private BigNumberConverter(final Class<?> type) {
+      super();
+
+      this.type = type;
+    }
+
+    private final Class<?> type;
+
+    @Override
+    public JsonValue toJson(final Object value) {
+      return (value != null ? Json.create(value.toString()) : Json.createNull());
+    }
+
+    @Override
+    public Object fromJson(final JsonValue json) {
+      if(isNull(json)) return null;
+
+      final BigDecimal number = new BigDecimal(json.getType() == JsonType.STRING ? json.asString() : json.toJson());
+
+      return (type == BigInteger.class ? number.toBigInteger() : number);
+    }
+
+  }
+
+  /**
+   * Converts enum constants, by name.
+   *
+   * @author Oliver Yasuna
+   */
+  private static final class EnumConverter implements JsonConverter<Object> {
+
+    private EnumConverter(final Class<?> type) {
+      super();
+
+      this.constants = new LinkedHashMap<>();
+
+      for(final Object constant : type.getEnumConstants()) {
+        constants.put(((Enum<?>)constant).name(), constant);
+      }
+    }
+
+    private final Map<String, Object> constants;
+
+    @Override
+    public JsonValue toJson(final Object value) {
+      return (value != null ? Json.create(((Enum<?>)value).name()) : Json.createNull());
+    }
+
+    @Override
+    public Object fromJson(final JsonValue json) {
+      return (!isNull(json) ? constants.get(json.asString()) : null);
+    }
+
+  }
+
+  /**
+   * Passes {@link JsonValue}s through.
+   *
+   * @author Oliver Yasuna
+   */
+  private static final class JsonValueConverter implements JsonConverter<JsonValue> {
+
+    private static final JsonValueConverter INSTANCE = new JsonValueConverter();
+
+    @Override
+    public JsonValue toJson(final JsonValue value) {
+      return (value != null ? value : Json.createNull());
+    }
+
+    @Override
+    public JsonValue fromJson(final JsonValue json) {
+      return json;
+    }
+
+  }
+
+  /**
+   * Converts values whose type is only known at runtime.
+   * Values are converted to JSON by their runtime class; JSON is converted to strings, {@link Double}s, {@link Boolean}s, {@link List}s and {@link Map}s.
+   *
+   * @author Oliver Yasuna
+   */
+  private static final class ObjectConverter implements JsonConverter<Object> {
+
+    private static final ObjectConverter INSTANCE = new ObjectConverter();
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public JsonValue toJson(final Object value) {
+      if(value == null) return Json.createNull();
+      if(value.getClass() == Object.class) return Json.createObject();
+
+      return ((JsonConverter<Object>)forClass(value.getClass())).toJson(value);
+    }
+
+    @Override
+    public Object fromJson(final JsonValue json) {
+      if(isNull(json)) return null;
+
+      switch(json.getType()) {
+        case STRING:
+          return json.asString();
+        case NUMBER:
+          return json.asNumber();
+        case BOOLEAN:
+          return json.asBoolean();
+        case ARRAY: {
+          final JsonArray array = (JsonArray)json;
+          final List<Object> list = new ArrayList<>(array.length());
+
+          for(int i = 0; i < array.length(); i++) {
+            list.add(fromJson(array.get(i)));
+          }
+
+          return list;
+        }
+        default: {
+          final JsonObject object = (JsonObject)json;
+          final Map<String, Object> map = new LinkedHashMap<>();
+
+          for(final String key : object.keys()) {
+            map.put(key, fromJson(object.get(key)));
+          }
+
+          return map;
+        }
+      }
+    }
+
+  }
+
+  /**
+   * Converts arrays.
+   *
+   * @author Oliver Yasuna
+   */
+  private static final class ArrayConverter implements JsonConverter<Object> {
+
+    private ArrayConverter(final Class<?> componentClass, final Type componentType) {
+      super();
+
+      this.componentClass = componentClass;
+      this.componentConverter = new LazyConverter(componentType);
+    }
+
+    private final Class<?> componentClass;
+
+    private final LazyConverter componentConverter;
+
+    @Override
+    public JsonValue toJson(final Object value) {
+      if(value == null) return Json.createNull();
+
+      final JsonConverter<Object> converter = componentConverter.get();
+      final int length = Array.getLength(value);
+      final JsonArray array = Json.createArray();
+
+      for(int i = 0; i < length; i++) {
+        array.set(i, converter.toJson(Array.get(value, i)));
+      }
+
+      return array;
+    }
+
+    @Override
+    public Object fromJson(final JsonValue json) {
+      if(isNull(json)) return null;
+
+      final JsonConverter<Object> converter = componentConverter.get();
+      final JsonArray array = (JsonArray)json;
+      final Object value = Array.newInstance(componentClass, array.length());
+
+      for(int i = 0; i < array.length(); i++) {
+        final Object element = converter.fromJson(array.get(i));
+
+        // Primitive arrays keep their default value.
+        if(element != null || !componentClass.isPrimitive()) Array.set(value, i, element);
+      }
+
+      return value;
+    }
+
+  }
+
+  /**
+   * Converts {@link Collection}s.
+   *
+   * @author Oliver Yasuna
+   */
+  private static final class CollectionConverter implements JsonConverter<Collection<Object>> {
+
+    private CollectionConverter(final Class<?> type, final Type elementType) {
+      super();
+
+      this.type = type;
+      this.elementConverter = new LazyConverter(elementType);
+    }
+
+    private final Class<?> type;
+
+    private final LazyConverter elementConverter;
+
+    /**
+     * Resolved on the first conversion from JSON, as conversion to JSON does not need it.
+     */
+    private volatile Supplier<Collection<Object>> factory;
+
+    @Override
+    public JsonValue toJson(final Collection<Object> value) {
+      if(value == null) return Json.createNull();
+
+      final JsonConverter<Object> converter = elementConverter.get();
+      final JsonArray array = Json.createArray();
+
+      for(final Object element : value) {
+        array.set(array.length(), converter.toJson(element));
+      }
+
+      return array;
+    }
+
+    @Override
+    public Collection<Object> fromJson(final JsonValue json) {
+      if(isNull(json)) return null;
+
+      final JsonConverter<Object> converter = elementConverter.get();
+      final JsonArray array = (JsonArray)json;
+      Supplier<Collection<Object>> currentFactory = factory;
+
+      if(currentFactory == null) factory = currentFactory = collectionFactory(type);
+
+      final Collection<Object> value = currentFactory.get();
+
+      for(int i = 0; i < array.length(); i++) {
+        value.add(converter.fromJson(array.get(i)));
+      }
+
+      return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<Collection<Object>> collectionFactory(final Class<?> type) {
+      if(type.isAssignableFrom(ArrayList.class)) return ArrayList::new;
+      if(type.isAssignableFrom(LinkedHashSet.class)) return LinkedHashSet::new;
+      if(type.isAssignableFrom(TreeSet.class) || SortedSet.class == type) return TreeSet::new;
+
+      if(!isInstantiable(type)) {
+        if(SortedSet.class.isAssignableFrom(type)) return TreeSet::new;
+        if(Set.class.isAssignableFrom(type)) return LinkedHashSet::new;
+        if(List.class.isAssignableFrom(type)) return ArrayList::new;
+      }
+
+      final MethodHandle constructor = noArgumentConstructor(type);
+
+      return () -> {
+        try {
+          return (Collection<Object>)constructor.invokeExact();
+        } catch(final Throwable e) {
+          throw rethrow(e);
+        }
+      };
+    }
+
+  }
+
+  /**
+   * Converts {@link Map}s with string keys.
+   *
+   * @author Oliver Yasuna
+   */
+  private static final class MapConverter implements JsonConverter<Map<Object, Object>> {
+
+    private MapConverter(final Class<?> type, final Type valueType) {
+      super();
+
+      this.type = type;
+      this.valueConverter = new LazyConverter(valueType);
+    }
+
+    private final Class<?> type;
+
+    private final LazyConverter valueConverter;
+
+    /**
+     * Resolved on the first conversion from JSON, as conversion to JSON does not need it.
+     */
+    private volatile Supplier<Map<Object, Object>> factory;
+
+    @Override
+    public JsonValue toJson(final Map<Object, Object> value) {
+      if(value == null) return Json.createNull();
+
+      final JsonConverter<Object> converter = valueConverter.get();
+      final JsonObject object = Json.createObject();
+
+      for(final Map.Entry<Object, Object> entry : value.entrySet()) {
+        object.put(String.valueOf(entry.getKey()), converter.toJson(entry.getValue()));
+      }
+
+      return object;
+    }
+
+    @Override
+    public Map<Object, Object> fromJson(final JsonValue json) {
+      if(isNull(json)) return null;
+
+      final JsonConverter<Object> converter = valueConverter.get();
+      final JsonObject object = (JsonObject)json;
+      Supplier<Map<Object, Object>> currentFactory = factory;
+
+      if(currentFactory == null) factory = currentFactory = mapFactory(type);
+
+      final Map<Object, Object> value = currentFactory.get();
+
+      for(final String key : object.keys()) {
+        value.put(key, converter.fromJson(object.get(key)));
+      }
+
+      return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<Map<Object, Object>> mapFactory(final Class<?> type) {
+      if(type.isAssignableFrom(LinkedHashMap.class)) return LinkedHashMap::new;
+      if(type.isAssignableFrom(TreeMap.class) || SortedMap.class == type) return TreeMap::new;
+
+      if(!isInstantiable(type)) {
+        if(SortedMap.class.isAssignableFrom(type)) return TreeMap::new;
+
+        return LinkedHashMap::new;
+      }
+
+      final MethodHandle constructor = noArgumentConstructor(type);
+
+      return () -> {
+        try {
+          return (Map<Object, Object>)constructor.invokeExact();
+        } catch(final Throwable e) {
+          throw rethrow(e);
+        }
+      };
+    }
+
+  }
+
+  /**
+   * Converts beans to and from JSON objects, one member per readable property.
+   *
+   * @author Oliver Yasuna
+   */
+  private static final class BeanConverter implements JsonConverter<Object> {
+
+    private BeanConverter(final Class<?> type) {
+      super();
+
+      final BeanInfo beanInfo;
+
+      try {
+        beanInfo = Introspector.getBeanInfo(type, Object.class);
+      } catch(final IntrospectionException e) {
+        throw new IllegalArgumentException("Cannot introspect " + type.getName() + ".", e);
+      }
+
+      final List<Property> properties = new ArrayList<>();
+
+      for(final PropertyDescriptor descriptor : beanInfo.getPropertyDescriptors()) {
+        final Method getter = descriptor.getReadMethod();
+
+        if(getter == null) continue;
+
+        final Method setter = descriptor.getWriteMethod();
+
+        properties.add(new Property(
+            descriptor.getName(),
+            unreflect(getter).asType(MethodType.methodType(Object.class, Object.class)),
+            setter != null ? unreflect(setter).asType(MethodType.methodType(void.class, Object.class, Object.class)) : null,
+            getter.getGenericReturnType(),
+            getter.getReturnType().isPrimitive()
+        ));
+      }
+
+      this.type = type;
+      this.properties = properties.toArray(new Property[0]);
+      this.constructor = (hasNoArgumentConstructor(type) ? noArgumentConstructor(type) : null);
+    }
+
+    private final Class<?> type;
+
+    private final Property[] properties;
+
+    private final MethodHandle constructor;
+
+    @Override
+    public JsonValue toJson(final Object value) {
+      if(value == null) return Json.createNull();
+
+      final JsonObject object = Json.createObject();
+
+      try {
+        for(final Property property : properties) {
+          object.put(property.name, property.converter.get().toJson((Object)property.getter.invokeExact(value)));
+        }
+      } catch(final Throwable e) {
+        throw rethrow(e);
+      }
+
+      return object;
+    }
+
+    @Override
+    public Object fromJson(final JsonValue json) {
+      if(isNull(json)) return null;
+
+      if(constructor == null) throw new UnsupportedOperationException(type.getName() + " does not have a public no-argument constructor.");
+
+      final JsonObject object = (JsonObject)json;
+
+      try {
+        final Object value = (Object)constructor.invokeExact();
+
+        for(final Property property : properties) {
+          if(property.setter == null || !object.hasKey(property.name)) continue;
+
+          final Object propertyValue = property.converter.get().fromJson(object.get(property.name));
+
+          // Primitive properties keep their current value.
+          if(propertyValue == null && property.primitive) continue;
+
+          property.setter.invokeExact(value, propertyValue);
+        }
+
+        return value;
+      } catch(final Throwable e) {
+        throw rethrow(e);
+      }
+    }
+
+  }
+
+  /**
+   * A bean property.
+   *
+   * @author Oliver Yasuna
+   */
+  private static final class Property {
+
+    private Property(final String name, final MethodHandle getter, final MethodHandle setter, final Type type, final boolean primitive) {
+      super();
+
+      this.name = name;
+      this.getter = getter;
+      this.setter = setter;
+      this.converter = new LazyConverter(type);
+      this.primitive = primitive;
+    }
+
+    private final String name;
+
+    /**
+     * {@code (Object)Object}.
+     */
+    private final MethodHandle getter;
+
+    /**
+     * {@code (Object, Object)void}, or {@code null}, if the property is read-only.
+     */
+    private final MethodHandle setter;
+
+    private final LazyConverter converter;
+
+    private final boolean primitive;
+
+  }
+
+}
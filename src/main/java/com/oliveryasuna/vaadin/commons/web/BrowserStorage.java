@@ -21,14 +21,44 @@ package com.oliveryasuna.vaadin.commons.web;
 import com.oliveryasuna.commons.language.condition.Arguments;
 import com.oliveryasuna.commons.language.exception.UnsupportedInstantiationException;
 import com.oliveryasuna.commons.language.marker.Utility;
+import com.oliveryasuna.vaadin.commons.json.JsonConverter;
+import com.oliveryasuna.vaadin.commons.json.JsonConverters;
 import com.vaadin.flow.component.UI;
+import com.vaadin.flow.shared.Registration;
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+import elemental.json.JsonType;
+import elemental.json.JsonValue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * For manipulating browser <a href="https://developer.mozilla.org/en-US/docs/Web/API/Storage">{@code Storage}</a> objects, particularly {@code localStorage}
  * and {@code sessionStorage}.
  * <p>
+ * If a {@link BrowserStorageCache} is installed for a {@link UI} and storage object, reads are served from it when possible and writes update it.
+ * <p>
+ * Writes made with {@link #setItemDeferred(UI, WebStorageObject, String, String)} and {@link #removeItemDeferred(UI, WebStorageObject, String)} are buffered
+ * and sent as a single script just before the server response is written.
+ * Reads and immediate writes take buffered writes into account.
+ * <p>
  * Inspired by code from <a href="https://github.com/viritin/flow-viritin">flow-viritin</a>.
  *
  * @author Oliver Yasuna
@@ -37,6 +67,25 @@ import java.util.concurrent.CompletableFuture;
 @Utility
 public final class BrowserStorage {
 
+  // Static fields
+  //--------------------------------------------------
+
+  /**
+   * Marks a value stored by {@link #setItemCompressed(UI, WebStorageObject, String, String)}.
+   * It is followed by the Base64 encoding of the gzip-compressed UTF-8 value.
+   */
+  public static final char COMPRESSED_VALUE_HEADER = '\u001F';
+
+  /**
+   * The minimum length of a value for {@link #setItemCompressed(UI, WebStorageObject, String, String)} to attempt compression.
+   */
+  public static final int COMPRESSION_THRESHOLD = 1024;
+
+  /**
+   * The default maximum size, in bytes, of a value decompressed by {@link #getItemCompressed(UI, WebStorageObject, String)}.
+   */
+  public static final int DEFAULT_MAX_DECOMPRESSED_SIZE = 16 * 1024 * 1024;
+
   // Static utility methods
   //--------------------------------------------------
 
@@ -56,8 +105,33 @@ public final class BrowserStorage {
     Arguments.requireNotNull(object);
     Arguments.requireNotNull(key);
 
-    return ui.getPage().executeJs("return window[$0].getItem($1);", object.getJavaScriptName(), key)
-        .toCompletableFuture(String.class);
+    final BrowserStorageWriteBuffer buffer = BrowserStorageWriteBuffer.find(ui, object);
+
+    if(buffer != null && buffer.isPending(key)) return CompletableFuture.completedFuture(buffer.getPendingValue(key));
+
+    final BrowserStorageCache cache = BrowserStorageCache.find(ui, object);
+
+    if(cache != null && cache.contains(key)) return CompletableFuture.completedFuture(cache.get(key));
+
+    if(cache != null) {
+      final CompletableFuture<String> prefetch = cache.findPrefetch(key);
+
+      // A dependent future, so that callers cannot complete the shared one.
+      if(prefetch != null) return prefetch.thenApply(value -> value);
+    }
+
+    final CompletableFuture<String> result = ClientCalls.execute(ui, "BrowserStorage.getItem", String.class,
+            "return window[$0].getItem($1);", object.getJavaScriptName(), key);
+
+    if(cache == null) return result;
+
+    final long version = cache.getVersion();
+
+    return ClientCalls.propagateCancellation(result, result.thenApply(value -> {
+      cache.putRead(key, value, version);
+
+      return value;
+    }));
   }
 
   /**
@@ -84,8 +158,14 @@ public final class BrowserStorage {
     Arguments.requireNotNull(object);
     Arguments.requireNotNull(key);
 
-    return ui.getPage().executeJs("window[$0].setItem($1, $2);", object.getJavaScriptName(), key, value)
-        .toCompletableFuture(Void.class);
+    discardPending(ui, object, key);
+
+    final BrowserStorageCache cache = BrowserStorageCache.find(ui, object);
+
+    if(cache != null) cache.put(key, value);
+
+    return invalidateOnFailure(cache, List.of(key), ClientCalls.execute(ui, "BrowserStorage.setItem", Void.class,
+        "window[$0].setItem($1, $2);", object.getJavaScriptName(), key, value));
   }
 
   /**
@@ -95,6 +175,38 @@ public final class BrowserStorage {
     return setItem(UI.getCurrent(), object, key, value);
   }
 
+  /**
+   * Sets an item in a storage, deferring the write until the server response is written.
+   * <p>
+   * All deferred writes to the same {@link UI} and storage object are sent as a single script.
+   * If a key is written more than once before then, only the last write is sent.
+   *
+   * @param ui     The {@link UI} instance.
+   * @param object The type of web storage.
+   * @param key    The key of the item.
+   * @param value  The value of the item.
+   *
+   * @return A {@link CompletableFuture} which completes when the buffered writes have been applied by the client.
+   */
+  public static CompletableFuture<Void> setItemDeferred(final UI ui, final WebStorageObject object, final String key, final String value) {
+    Arguments.requireNotNull(ui);
+    Arguments.requireNotNull(object);
+    Arguments.requireNotNull(key);
+
+    final BrowserStorageCache cache = BrowserStorageCache.find(ui, object);
+
+    if(cache != null) cache.put(key, value);
+
+    return invalidateOnFailure(cache, List.of(key), BrowserStorageWriteBuffer.get(ui, object).setItem(key, value));
+  }
+
+  /**
+   * Calls {@link #setItemDeferred(UI, WebStorageObject, String, String)} with the specific first argument, {@code UI.getCurrent()}.
+   */
+  public static CompletableFuture<Void> setItemDeferred(final WebStorageObject object, final String key, final String value) {
+    return setItemDeferred(UI.getCurrent(), object, key, value);
+  }
+
   /**
    * Removes an item from a storage.
    * <p>
@@ -111,8 +223,14 @@ public final class BrowserStorage {
     Arguments.requireNotNull(object);
     Arguments.requireNotNull(key);
 
-    return ui.getPage().executeJs("return window[$0].removeItem($1);", object.getJavaScriptName(), key)
-        .toCompletableFuture(Void.class);
+    discardPending(ui, object, key);
+
+    final BrowserStorageCache cache = BrowserStorageCache.find(ui, object);
+
+    if(cache != null) cache.remove(key);
+
+    return invalidateOnFailure(cache, List.of(key), ClientCalls.execute(ui, "BrowserStorage.removeItem", Void.class,
+        "return window[$0].removeItem($1);", object.getJavaScriptName(), key));
   }
 
   /**
@@ -122,6 +240,36 @@ public final class BrowserStorage {
     return removeItem(UI.getCurrent(), object, key);
   }
 
+  /**
+   * Removes an item from a storage, deferring the removal until the server response is written.
+   * <p>
+   * See {@link #setItemDeferred(UI, WebStorageObject, String, String)}.
+   *
+   * @param ui     The {@link UI} instance.
+   * @param object The type of web storage.
+   * @param key    The key of the item.
+   *
+   * @return A {@link CompletableFuture} which completes when the buffered writes have been applied by the client.
+   */
+  public static CompletableFuture<Void> removeItemDeferred(final UI ui, final WebStorageObject object, final String key) {
+    Arguments.requireNotNull(ui);
+    Arguments.requireNotNull(object);
+    Arguments.requireNotNull(key);
+
+    final BrowserStorageCache cache = BrowserStorageCache.find(ui, object);
+
+    if(cache != null) cache.remove(key);
+
+    return invalidateOnFailure(cache, List.of(key), BrowserStorageWriteBuffer.get(ui, object).removeItem(key));
+  }
+
+  /**
+   * Calls {@link #removeItemDeferred(UI, WebStorageObject, String)} with the specific first argument, {@code UI.getCurrent()}.
+   */
+  public static CompletableFuture<Void> removeItemDeferred(final WebStorageObject object, final String key) {
+    return removeItemDeferred(UI.getCurrent(), object, key);
+  }
+
   /**
    * Clears all items from a storage.
    * <p>
@@ -136,8 +284,16 @@ public final class BrowserStorage {
     Arguments.requireNotNull(ui);
     Arguments.requireNotNull(object);
 
-    return ui.getPage().executeJs("window[$0].clear();", object.getJavaScriptName())
-        .toCompletableFuture(Void.class);
+    final BrowserStorageWriteBuffer buffer = BrowserStorageWriteBuffer.find(ui, object);
+
+    if(buffer != null) buffer.discardAll();
+
+    final BrowserStorageCache cache = BrowserStorageCache.find(ui, object);
+
+    if(cache != null) cache.clear();
+
+    return invalidateOnFailure(cache, null, ClientCalls.execute(ui, "BrowserStorage.clear", Void.class, "window[$0].clear();",
+        object.getJavaScriptName()));
   }
 
   /**
@@ -163,8 +319,7 @@ public final class BrowserStorage {
     Arguments.requireNotNull(object);
     Arguments.requireGreaterOrSame(index, 0);
 
-    return ui.getPage().executeJs("return window[$0].key($1);", object.getJavaScriptName(), index)
-        .toCompletableFuture(String.class);
+    return ClientCalls.execute(ui, "BrowserStorage.key", String.class, "return window[$0].key($1);", object.getJavaScriptName(), index);
   }
 
   /**
@@ -188,8 +343,7 @@ public final class BrowserStorage {
     Arguments.requireNotNull(ui);
     Arguments.requireNotNull(object);
 
-    return ui.getPage().executeJs("return window[$0].length;", object.getJavaScriptName())
-        .toCompletableFuture(Integer.class);
+    return ClientCalls.execute(ui, "BrowserStorage.length", Integer.class, "return window[$0].length;", object.getJavaScriptName());
   }
 
   /**
@@ -199,6 +353,639 @@ public final class BrowserStorage {
     return length(UI.getCurrent(), object);
   }
 
+  // Compression
+  //
+
+  /**
+   * Gets an item stored by {@link #setItemCompressed(UI, WebStorageObject, String, String)}.
+   * <p>
+   * The value is decompressed on the server, so it crosses the network compressed.
+   * Values that are not compressed are returned as-is.
+   *
+   * @param ui                  The {@link UI} instance.
+   * @param object              The type of web storage.
+   * @param key                 The key of the item.
+   * @param maxDecompressedSize The maximum size, in bytes, of the decompressed value.
+   *                            The value is stored by the client, so it must not be trusted to decompress to a reasonable size.
+   *
+   * @return A {@link CompletableFuture} containing the decompressed value of the item.
+   *     It completes exceptionally with an {@link UncheckedIOException} if the decompressed value would exceed {@code maxDecompressedSize}.
+   */
+  public static CompletableFuture<String> getItemCompressed(final UI ui, final WebStorageObject object, final String key,
+      final int maxDecompressedSize) {
+    Arguments.requireGreaterOrSame(maxDecompressedSize, 0);
+
+    final CompletableFuture<String> item = getItem(ui, object, key);
+
+    return ClientCalls.propagateCancellation(item, item.thenApply(value -> decompressValue(value, maxDecompressedSize)));
+  }
+
+  /**
+   * Calls {@link #getItemCompressed(UI, WebStorageObject, String, int)} with the specific last argument, {@link #DEFAULT_MAX_DECOMPRESSED_SIZE}.
+   */
+  public static CompletableFuture<String> getItemCompressed(final UI ui, final WebStorageObject object, final String key) {
+    return getItemCompressed(ui, object, key, DEFAULT_MAX_DECOMPRESSED_SIZE);
+  }
+
+  /**
+   * Calls {@link #getItemCompressed(UI, WebStorageObject, String, int)} with the specific first argument, {@code UI.getCurrent()}.
+   */
+  public static CompletableFuture<String> getItemCompressed(final WebStorageObject object, final String key, final int maxDecompressedSize) {
+    return getItemCompressed(UI.getCurrent(), object, key, maxDecompressedSize);
+  }
+
+  /**
+   * Calls {@link #getItemCompressed(UI, WebStorageObject, String)} with the specific first argument, {@code UI.getCurrent()}.
+   */
+  public static CompletableFuture<String> getItemCompressed(final WebStorageObject object, final String key) {
+    return getItemCompressed(UI.getCurrent(), object, key);
+  }
+
+  /**
+   * Sets an item in a storage, compressing its value.
+   * <p>
+   * The value is compressed on the server, so it crosses the network compressed and takes less of the storage quota.
+   * It is stored as {@link #COMPRESSED_VALUE_HEADER} followed by the Base64 encoding of the gzip-compressed UTF-8 value,
+   * which client-side code can read with a {@code DecompressionStream}.
+   * Values shorter than {@link #COMPRESSION_THRESHOLD}, or that do not get smaller, are stored as-is.
+   *
+   * @param ui     The {@link UI} instance.
+   * @param object The type of web storage.
+   * @param key    The key of the item.
+   * @param value  The value of the item.
+   *
+   * @return A {@link CompletableFuture} which can be used to determine completeness.
+   */
+  public static CompletableFuture<Void> setItemCompressed(final UI ui, final WebStorageObject object, final String key, final String value) {
+    return setItem(ui, object, key, compressValue(value));
+  }
+
+  /**
+   * Calls {@link #setItemCompressed(UI, WebStorageObject, String, String)} with the specific first argument, {@code UI.getCurrent()}.
+   */
+  public static CompletableFuture<Void> setItemCompressed(final WebStorageObject object, final String key, final String value) {
+    return setItemCompressed(UI.getCurrent(), object, key, value);
+  }
+
+  // Typed
+  //
+
+  /**
+   * Gets an item stored as JSON, such as by {@link #setItemJson(UI, WebStorageObject, String, Object)}, and converts it to a value.
+   * <p>
+   * Conversion uses the cached converter from {@link JsonConverters#forClass(Class)}.
+   * If the stored value is not valid JSON, the returned {@link CompletableFuture} completes exceptionally.
+   *
+   * @param ui     The {@link UI} instance.
+   * @param object The type of web storage.
+   * @param key    The key of the item.
+   * @param type   The class of the value.
+   * @param <T>    The type of the value.
+   *
+   * @return A {@link CompletableFuture} containing the value of the item, or {@code null}, if the item does not exist.
+   */
+  public static <T> CompletableFuture<T> getItemJson(final UI ui, final WebStorageObject object, final String key, final Class<T> type) {
+    Arguments.requireNotNull(type);
+
+    final JsonConverter<T> converter = JsonConverters.forClass(type);
+
+    final CompletableFuture<String> item = getItem(ui, object, key);
+
+    return ClientCalls.propagateCancellation(item, item.thenApply(value -> (value != null ? converter.fromJson(Json.parse(value)) : null)));
+  }
+
+  /**
+   * Calls {@link #getItemJson(UI, WebStorageObject, String, Class)} with the specific first argument, {@code UI.getCurrent()}.
+   */
+  public static <T> CompletableFuture<T> getItemJson(final WebStorageObject object, final String key, final Class<T> type) {
+    return getItemJson(UI.getCurrent(), object, key, type);
+  }
+
+  /**
+   * Sets an item in a storage, storing a value as JSON.
+   * <p>
+   * Conversion uses the cached converter from {@link JsonConverters#forClass(Class)} for the runtime class of the value.
+   *
+   * @param ui     The {@link UI} instance.
+   * @param object The type of web storage.
+   * @param key    The key of the item.
+   * @param value  The value of the item.
+   * @param <T>    The type of the value.
+   *
+   * @return A {@link CompletableFuture} which can be used to determine completeness.
+   */
+  public static <T> CompletableFuture<Void> setItemJson(final UI ui, final WebStorageObject object, final String key, final T value) {
+    return setItem(ui, object, key, JsonConverters.forClass(Object.class).toJson(value).toJson());
+  }
+
+  /**
+   * Calls {@link #setItemJson(UI, WebStorageObject, String, Object)} with the specific first argument, {@code UI.getCurrent()}.
+   */
+  public static <T> CompletableFuture<Void> setItemJson(final WebStorageObject object, final String key, final T value) {
+    return setItemJson(UI.getCurrent(), object, key, value);
+  }
+
+  // Enumeration
+  //
+
+  /**
+   * Gets the keys of all items in a storage in a single round trip.
+   * <p>
+   * Unlike calling {@link #length(UI, WebStorageObject)} followed by {@link #key(UI, WebStorageObject, int)} for each index, this requires one round trip.
+   *
+   * @param ui     The {@link UI} instance.
+   * @param object The type of web storage.
+   *
+   * @return A {@link CompletableFuture} containing an unmodifiable list of keys, in storage order.
+   */
+  public static CompletableFuture<List<String>> keys(final UI ui, final WebStorageObject object) {
+    Arguments.requireNotNull(ui);
+    Arguments.requireNotNull(object);
+
+    // Deferred writes are flushed after the read, so they are applied to its result.
+    final Map<String, String> pendingWrites = snapshotPending(ui, object);
+
+    final CompletableFuture<JsonArray> result = ClientCalls.execute(ui, "BrowserStorage.keys", JsonArray.class,
+        "const s=window[$0];const r=[];for(let i=0;i<s.length;i++){r.push(s.key(i));}return r;", object.getJavaScriptName());
+
+    return ClientCalls.propagateCancellation(result, result
+        .thenApply(jsonKeys -> {
+          final Set<String> keys = new LinkedHashSet<>();
+
+          if(jsonKeys != null) {
+            for(int i = 0; i < jsonKeys.length(); i++) {
+              keys.add(jsonKeys.getString(i));
+            }
+          }
+
+          pendingWrites.forEach((key, value) -> {
+            if(value != null) {
+              keys.add(key);
+            } else {
+              keys.remove(key);
+            }
+          });
+
+          return List.copyOf(keys);
+        }));
+  }
+
+  /**
+   * Calls {@link #keys(UI, WebStorageObject)} with the specific first argument, {@code UI.getCurrent()}.
+   */
+  public static CompletableFuture<List<String>> keys(final WebStorageObject object) {
+    return keys(UI.getCurrent(), object);
+  }
+
+  /**
+   * Gets all items in a storage whose keys start with a prefix.
+   * <p>
+   * Items are transferred in chunks.
+   * Each chunk holds at least one item and, beyond that, at most {@code maxChunkLength} characters of keys and values, so a large storage does not
+   * produce a single huge response.
+   * If the storage is modified by the client while chunks are being transferred, items may be missed or repeated.
+   * <p>
+   * Transferred items are recorded in the installed {@link BrowserStorageCache}, if any.
+   *
+   * @param ui             The {@link UI} instance.
+   * @param object         The type of web storage.
+   * @param prefix         The key prefix. {@code null} or empty matches all keys.
+   * @param maxChunkLength The maximum number of characters per chunk. {@code 0} transfers all items in one chunk.
+   *
+   * @return A {@link CompletableFuture} containing an unmodifiable map of keys to values, in storage order.
+   */
+  public static CompletableFuture<Map<String, String>> entries(final UI ui, final WebStorageObject object, final String prefix, final int maxChunkLength) {
+    Arguments.requireNotNull(ui);
+    Arguments.requireNotNull(object);
+    Arguments.requireGreaterOrSame(maxChunkLength, 0);
+
+    final String nonNullPrefix = (prefix != null ? prefix : "");
+    final BrowserStorageCache cache = BrowserStorageCache.find(ui, object);
+    final long version = (cache != null ? cache.getVersion() : 0L);
+    // Deferred writes are flushed after the read, so they are applied to its result.
+    final Map<String, String> pendingWrites = snapshotPending(ui, object);
+
+    // Cancelled by the result, to cancel the chunk in flight.
+    final CompletableFuture<Void> cancellation = new CompletableFuture<>();
+
+    final CompletableFuture<Map<String, String>> fetched = fetchEntries(ui, object, nonNullPrefix, maxChunkLength, 0, new LinkedHashMap<>(),
+        cancellation);
+
+    return ClientCalls.propagateCancellation(cancellation, fetched
+        .thenApply(entries -> {
+          if(cache != null) entries.forEach((key, value) -> cache.putRead(key, value, version));
+
+          pendingWrites.forEach((key, value) -> {
+            if(!key.startsWith(nonNullPrefix)) return;
+
+            if(value != null) {
+              entries.put(key, value);
+            } else {
+              entries.remove(key);
+            }
+          });
+
+          return Collections.unmodifiableMap(entries);
+        }));
+  }
+
+  /**
+   * Calls {@link #entries(UI, WebStorageObject, String, int)} with the specific last argument, {@code 0}.
+   */
+  public static CompletableFuture<Map<String, String>> entries(final UI ui, final WebStorageObject object, final String prefix) {
+    return entries(ui, object, prefix, 0);
+  }
+
+  /**
+   * Calls {@link #entries(UI, WebStorageObject, String)} with the specific last argument, {@code null}.
+   */
+  public static CompletableFuture<Map<String, String>> entries(final UI ui, final WebStorageObject object) {
+    return entries(ui, object, null);
+  }
+
+  /**
+   * Calls {@link #entries(UI, WebStorageObject, String, int)} with the specific first argument, {@code UI.getCurrent()}.
+   */
+  public static CompletableFuture<Map<String, String>> entries(final WebStorageObject object, final String prefix, final int maxChunkLength) {
+    return entries(UI.getCurrent(), object, prefix, maxChunkLength);
+  }
+
+  /**
+   * Calls {@link #entries(UI, WebStorageObject, String)} with the specific first argument, {@code UI.getCurrent()}.
+   */
+  public static CompletableFuture<Map<String, String>> entries(final WebStorageObject object, final String prefix) {
+    return entries(UI.getCurrent(), object, prefix);
+  }
+
+  /**
+   * Calls {@link #entries(UI, WebStorageObject)} with the specific first argument, {@code UI.getCurrent()}.
+   */
+  public static CompletableFuture<Map<String, String>> entries(final WebStorageObject object) {
+    return entries(UI.getCurrent(), object);
+  }
+
+  // Events
+  //
+
+  /**
+   * Adds a listener for changes made to a storage by other browser tabs, or windows, of the same origin.
+   * <p>
+   * Changes are pushed by the browser, so no polling is needed.
+   * A single {@code storage} event handler is registered in the browser per {@link UI}.
+   * Changes to keys that do not start with any registered prefix are dropped in the browser,
+   * and changes made in quick succession are sent in one batch.
+   * <p>
+   * Changes made in the same tab, including those made through this class, are not reported, as per the
+   * <a href="https://developer.mozilla.org/en-US/docs/Web/API/Window/storage_event">{@code storage}</a> event.
+   *
+   * @param ui        The {@link UI} instance.
+   * @param object    The type of web storage.
+   * @param keyPrefix The key prefix. {@code null} or empty matches all keys. The clearing of the storage is always reported.
+   * @param listener  The listener.
+   *
+   * @return The listener {@link Registration}.
+   */
+  public static Registration addChangeListener(final UI ui, final WebStorageObject object, final String keyPrefix,
+      final BrowserStorageChangeListener listener) {
+    Arguments.requireNotNull(ui);
+    Arguments.requireNotNull(object);
+    Arguments.requireNotNull(listener);
+
+    return BrowserStorageChangeDispatcher.get(ui).addListener(object, keyPrefix != null ? keyPrefix : "", listener);
+  }
+
+  /**
+   * Calls {@link #addChangeListener(UI, WebStorageObject, String, BrowserStorageChangeListener)} with the specific first argument, {@code UI.getCurrent()}.
+   */
+  public static Registration addChangeListener(final WebStorageObject object, final String keyPrefix, final BrowserStorageChangeListener listener) {
+    return addChangeListener(UI.getCurrent(), object, keyPrefix, listener);
+  }
+
+  // Batch
+  //
+
+  /**
+   * Gets multiple items in a storage in a single round trip.
+   * <p>
+   * Equivalent to calling {@link #getItem(UI, WebStorageObject, String)} for each key.
+   *
+   * @param ui     The {@link UI} instance.
+   * @param object The type of web storage.
+   * @param keys   The keys of the items.
+   *
+   * @return A {@link CompletableFuture} containing an unmodifiable map of keys to values, in iteration order of {@code keys}.
+   *     Like {@link #getItem(UI, WebStorageObject, String)}, the value of a missing item is {@code null}.
+   */
+  public static CompletableFuture<Map<String, String>> getItems(final UI ui, final WebStorageObject object, final Collection<String> keys) {
+    Arguments.requireNotNull(ui);
+    Arguments.requireNotNull(object);
+    Arguments.requireNotNull(keys);
+
+    if(keys.isEmpty()) return CompletableFuture.completedFuture(Collections.emptyMap());
+
+    final BrowserStorageWriteBuffer buffer = BrowserStorageWriteBuffer.find(ui, object);
+    final BrowserStorageCache cache = BrowserStorageCache.find(ui, object);
+    // Known values are copied up front, as recording fetched values may evict them.
+    final Map<String, String> items = new HashMap<>();
+    final Collection<String> unknownKeys;
+
+    if(buffer != null || cache != null) {
+      unknownKeys = new LinkedHashSet<>();
+
+      for(final String key : keys) {
+        Arguments.requireNotNull(key);
+
+        if(buffer != null && buffer.isPending(key)) {
+          items.put(key, buffer.getPendingValue(key));
+        } else if(cache != null && cache.contains(key)) {
+          items.put(key, cache.get(key));
+        } else {
+          unknownKeys.add(key);
+        }
+      }
+    } else {
+      unknownKeys = keys;
+    }
+
+    if(unknownKeys.isEmpty()) return CompletableFuture.completedFuture(orderItems(keys, items));
+
+    final long version = (cache != null ? cache.getVersion() : 0L);
+
+    // Values are returned in the order of the keys, as keys such as "__proto__" cannot be set on a plain object.
+    final CompletableFuture<JsonArray> result = ClientCalls.execute(ui, "BrowserStorage.getItems", JsonArray.class,
+        "const s=window[$0];return $1.map(k=>s.getItem(k));", object.getJavaScriptName(), toJsonArray(unknownKeys));
+
+    return ClientCalls.propagateCancellation(result, result
+        .thenApply(jsonValues -> {
+          int i = 0;
+
+          for(final String key : unknownKeys) {
+            final String value = (jsonValues != null && i < jsonValues.length() ? asNullableString(jsonValues.get(i)) : null);
+
+            i++;
+
+            items.put(key, value);
+
+            if(cache != null) cache.putRead(key, value, version);
+          }
+
+          return orderItems(keys, items);
+        }));
+  }
+
+  /**
+   * Calls {@link #getItems(UI, WebStorageObject, Collection)} with the specific first argument, {@code UI.getCurrent()}.
+   */
+  public static CompletableFuture<Map<String, String>> getItems(final WebStorageObject object, final Collection<String> keys) {
+    return getItems(UI.getCurrent(), object, keys);
+  }
+
+  /**
+   * Sets multiple items in a storage in a single round trip.
+   * <p>
+   * Equivalent to calling {@link #setItem(UI, WebStorageObject, String, String)} for each entry, in iteration order of {@code items}.
+   *
+   * @param ui     The {@link UI} instance.
+   * @param object The type of web storage.
+   * @param items  The keys and values of the items.
+   *
+   * @return A {@link CompletableFuture} which can be used to determine completeness.
+   */
+  public static CompletableFuture<Void> setItems(final UI ui, final WebStorageObject object, final Map<String, String> items) {
+    Arguments.requireNotNull(ui);
+    Arguments.requireNotNull(object);
+    Arguments.requireNotNull(items);
+
+    if(items.isEmpty()) return CompletableFuture.completedFuture(null);
+
+    final BrowserStorageCache cache = BrowserStorageCache.find(ui, object);
+    final JsonArray jsonItems = Json.createArray();
+
+    for(final Map.Entry<String, String> item : items.entrySet()) {
+      final JsonArray jsonItem = Json.createArray();
+
+      jsonItem.set(0, Arguments.requireNotNull(item.getKey()));
+      jsonItem.set(1, toNullableJson(item.getValue()));
+
+      jsonItems.set(jsonItems.length(), jsonItem);
+
+      discardPending(ui, object, item.getKey());
+
+      if(cache != null) cache.put(item.getKey(), item.getValue());
+    }
+
+    return invalidateOnFailure(cache, List.copyOf(items.keySet()), ClientCalls.execute(ui, "BrowserStorage.setItems", Void.class,
+        "const s=window[$0];for(const e of $1){s.setItem(e[0],e[1]);}", object.getJavaScriptName(), jsonItems));
+  }
+
+  /**
+   * Calls {@link #setItems(UI, WebStorageObject, Map)} with the specific first argument, {@code UI.getCurrent()}.
+   */
+  public static CompletableFuture<Void> setItems(final WebStorageObject object, final Map<String, String> items) {
+    return setItems(UI.getCurrent(), object, items);
+  }
+
+  /**
+   * Removes multiple items from a storage in a single round trip.
+   * <p>
+   * Equivalent to calling {@link #removeItem(UI, WebStorageObject, String)} for each key.
+   *
+   * @param ui     The {@link UI} instance.
+   * @param object The type of web storage.
+   * @param keys   The keys of the items.
+   *
+   * @return A {@link CompletableFuture} which can be used to determine completeness.
+   */
+  public static CompletableFuture<Void> removeItems(final UI ui, final WebStorageObject object, final Collection<String> keys) {
+    Arguments.requireNotNull(ui);
+    Arguments.requireNotNull(object);
+    Arguments.requireNotNull(keys);
+
+    if(keys.isEmpty()) return CompletableFuture.completedFuture(null);
+
+    final JsonArray jsonKeys = toJsonArray(keys);
+    final BrowserStorageCache cache = BrowserStorageCache.find(ui, object);
+
+    for(final String key : keys) {
+      discardPending(ui, object, key);
+
+      if(cache != null) cache.remove(key);
+    }
+
+    return invalidateOnFailure(cache, List.copyOf(keys), ClientCalls.execute(ui, "BrowserStorage.removeItems", Void.class,
+        "const s=window[$0];for(const k of $1){s.removeItem(k);}", object.getJavaScriptName(), jsonKeys));
+  }
+
+  /**
+   * Calls {@link #removeItems(UI, WebStorageObject, Collection)} with the specific first argument, {@code UI.getCurrent()}.
+   */
+  public static CompletableFuture<Void> removeItems(final WebStorageObject object, final Collection<String> keys) {
+    return removeItems(UI.getCurrent(), object, keys);
+  }
+
+  // Helpers
+  //
+
+  /**
+   * Fetches one chunk of entries, starting at a storage index, then the following chunks, if any.
+   * The result of each chunk is a flat array of alternating keys and values, plus the index at which the next chunk starts, or {@code -1}.
+   *
+   * @param cancellation A future which, if cancelled, cancels the chunk in flight.
+   */
+  private static CompletableFuture<Map<String, String>> fetchEntries(final UI ui, final WebStorageObject object, final String prefix,
+      final int maxChunkLength, final int startIndex, final Map<String, String> entries, final CompletableFuture<Void> cancellation) {
+    final CompletableFuture<JsonObject> chunkResult = ClientCalls.execute(ui, "BrowserStorage.entries", JsonObject.class,
+        "const s=window[$0];const p=$1;const m=$2;const r=[];let n=0;let i=$3;"
+        + "for(;i<s.length;i++){const k=s.key(i);if(!k.startsWith(p))continue;const v=s.getItem(k);n+=k.length+v.length;"
+        + "if(m>0&&r.length>0&&n>m)break;r.push(k,v);}"
+        + "return {e:r,n:i<s.length?i:-1};",
+        object.getJavaScriptName(), prefix, maxChunkLength, startIndex);
+
+    ClientCalls.propagateCancellation(chunkResult, cancellation);
+
+    return chunkResult
+        .thenCompose(result -> {
+          final JsonArray chunk = result.getArray("e");
+
+          for(int i = 0; i + 1 < chunk.length(); i += 2) {
+            entries.put(chunk.getString(i), chunk.getString(i + 1));
+          }
+
+          final int nextIndex = (int)result.getNumber("n");
+
+          if(nextIndex < 0) return CompletableFuture.completedFuture(entries);
+
+          return fetchEntries(ui, object, prefix, maxChunkLength, nextIndex, entries, cancellation);
+        });
+  }
+
+  private static JsonArray toJsonArray(final Collection<String> strings) {
+    final JsonArray array = Json.createArray();
+
+    for(final String string : strings) {
+      array.set(array.length(), Arguments.requireNotNull(string));
+    }
+
+    return array;
+  }
+
+  static String compressValue(final String value) {
+    if(value == null || value.length() < COMPRESSION_THRESHOLD) return value;
+
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream(value.length() / 4);
+
+    try(final GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+      gzip.write(value.getBytes(StandardCharsets.UTF_8));
+    } catch(final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    final String compressed = COMPRESSED_VALUE_HEADER + Base64.getEncoder().encodeToString(bytes.toByteArray());
+
+    return (compressed.length() < value.length() ? compressed : value);
+  }
+
+  /**
+   * @throws UncheckedIOException If the decompressed value would exceed {@code maxDecompressedSize} bytes.
+   */
+  static String decompressValue(final String value, final int maxDecompressedSize) {
+    if(value == null || value.isEmpty() || value.charAt(0) != COMPRESSED_VALUE_HEADER) return value;
+
+    final byte[] compressed;
+
+    try {
+      compressed = Base64.getDecoder().decode(value.substring(1));
+    } catch(final IllegalArgumentException e) {
+      // Not written by setItemCompressed().
+      return value;
+    }
+
+    final ByteArrayOutputStream decompressed = new ByteArrayOutputStream(Math.min(compressed.length * 4, maxDecompressedSize));
+
+    try(final GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+      final byte[] buffer = new byte[8192];
+      int read;
+
+      while((read = gzip.read(buffer)) != -1) {
+        if(decompressed.size() + read > maxDecompressedSize) {
+          throw new UncheckedIOException(new IOException("Decompressed value exceeds " + maxDecompressedSize + " bytes."));
+        }
+
+        decompressed.write(buffer, 0, read);
+      }
+    } catch(final IOException e) {
+      // Not written by setItemCompressed().
+      return value;
+    }
+
+    return new String(decompressed.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Invalidates items in the installed cache, if any, if a write fails, as the cache is updated before the write is sent.
+   *
+   * @param keys The keys of the written items, or {@code null}, if the storage was cleared.
+   *
+   * @return {@code write}.
+   */
+  private static CompletableFuture<Void> invalidateOnFailure(final BrowserStorageCache cache, final Collection<String> keys,
+      final CompletableFuture<Void> write) {
+    if(cache == null) return write;
+
+    write.whenComplete((result, throwable) -> {
+      if(throwable == null) return;
+
+      if(keys != null) {
+        keys.forEach(cache::invalidate);
+      } else {
+        cache.invalidateAll();
+      }
+    });
+
+    return write;
+  }
+
+  /**
+   * Copies the pending deferred writes, as they are gone once flushed.
+   *
+   * @return The values the items will have after the flush, by key, in order.
+   */
+  private static Map<String, String> snapshotPending(final UI ui, final WebStorageObject object) {
+    final BrowserStorageWriteBuffer buffer = BrowserStorageWriteBuffer.find(ui, object);
+
+    if(buffer == null) return Collections.emptyMap();
+
+    final Map<String, String> pendingWrites = new LinkedHashMap<>();
+
+    buffer.forEachPending(pendingWrites::put);
+
+    return pendingWrites;
+  }
+
+  private static void discardPending(final UI ui, final WebStorageObject object, final String key) {
+    final BrowserStorageWriteBuffer buffer = BrowserStorageWriteBuffer.find(ui, object);
+
+    if(buffer != null) buffer.discard(key);
+  }
+
+  private static Map<String, String> orderItems(final Collection<String> keys, final Map<String, String> items) {
+    final Map<String, String> ordered = new LinkedHashMap<>();
+
+    for(final String key : keys) {
+      ordered.put(key, items.get(key));
+    }
+
+    return Collections.unmodifiableMap(ordered);
+  }
+
+  private static JsonValue toNullableJson(final String string) {
+    return (string != null ? Json.create(string) : Json.createNull());
+  }
+
+  private static String asNullableString(final JsonValue value) {
+    return (value != null && value.getType() != JsonType.NULL ? value.asString() : null);
+  }
+
   // Constructors
   //--------------------------------------------------
 
@@ -0,0 +1,466 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.oliveryasuna.vaadin.commons.web;
+
+import com.oliveryasuna.commons.language.condition.Arguments;
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.shared.Registration;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A server-side, write-through mirror of a browser storage object, scoped to a {@link UI}.
+ * <p>
+ * Once installed with {@link #install(UI, BrowserStorage.WebStorageObject, int)}, {@link BrowserStorage} consults the mirror:
+ * reads of known keys complete immediately, without a round trip, and writes update the mirror before being sent to the client.
+ * If a write fails, times out or is rejected, the items it wrote are invalidated, so the mirror does not keep values the browser does not have.
+ * Changes made in other browser tabs are reported through {@link BrowserStorage#addChangeListener(UI, BrowserStorage.WebStorageObject, String,
+ * BrowserStorageChangeListener)} and invalidate the affected entries.
+ * <p>
+ * Changes made by client-side code in the same tab are not observed.
+ * Use {@link #invalidate(String)} or {@link #invalidateAll()} when such changes are expected.
+ * <p>
+ * Items that are needed early can be fetched together with {@link #prefetch(Collection)}, or when a {@link UI} is initialized with
+ * {@link BrowserStorageHydrator}.
+ * <p>
+ * Like the {@link UI} itself, instances are not thread-safe and must only be used while holding the session lock.
+ *
+ * @author Oliver Yasuna
+ * @since 3.0.0
+ */
+public final class BrowserStorageCache implements Serializable {
+
+  // Static fields
+  //--------------------------------------------------
+
+  /**
+   * The default maximum number of entries.
+   */
+  public static final int DEFAULT_MAX_SIZE = 256;
+
+  private static final String DATA_KEY_PREFIX = BrowserStorageCache.class.getName() + ".";
+
+  // Static utility methods
+  //--------------------------------------------------
+
+  /**
+   * Installs a cache for a storage object in a {@link UI}.
+   * <p>
+   * If a cache is already installed, it is returned unchanged.
+   *
+   * @param ui      The {@link UI} instance.
+   * @param object  The type of web storage.
+   * @param maxSize The maximum number of entries. When exceeded, the least recently used entry is evicted.
+   *
+   * @return The installed cache.
+   */
+  public static BrowserStorageCache install(final UI ui, final BrowserStorage.WebStorageObject object, final int maxSize) {
+    Arguments.requireNotNull(ui);
+    Arguments.requireNotNull(object);
+    Arguments.requireGreaterOrSame(maxSize, 1);
+
+    final BrowserStorageCache existing = find(ui, object);
+
+    if(existing != null) return existing;
+
+    final BrowserStorageCache cache = new BrowserStorageCache(ui, object, maxSize);
+
+    ComponentUtil.setData(ui, dataKey(object), cache);
+
+    cache.listen();
+
+    return cache;
+  }
+
+  /**
+   * Calls {@link #install(UI, BrowserStorage.WebStorageObject, int)} with the specific last argument, {@link #DEFAULT_MAX_SIZE}.
+   */
+  public static BrowserStorageCache install(final UI ui, final BrowserStorage.WebStorageObject object) {
+    return install(ui, object, DEFAULT_MAX_SIZE);
+  }
+
+  /**
+   * Calls {@link #install(UI, BrowserStorage.WebStorageObject)} with the specific first argument, {@code UI.getCurrent()}.
+   */
+  public static BrowserStorageCache install(final BrowserStorage.WebStorageObject object) {
+    return install(UI.getCurrent(), object);
+  }
+
+  /**
+   * Uninstalls the cache for a storage object in a {@link UI}, if one is installed.
+   *
+   * @param ui     The {@link UI} instance.
+   * @param object The type of web storage.
+   */
+  public static void uninstall(final UI ui, final BrowserStorage.WebStorageObject object) {
+    Arguments.requireNotNull(ui);
+    Arguments.requireNotNull(object);
+
+    final BrowserStorageCache cache = find(ui, object);
+
+    if(cache == null) return;
+
+    cache.unlisten();
+
+    ComponentUtil.setData(ui, dataKey(object), null);
+  }
+
+  /**
+   * Finds the cache installed for a storage object in a {@link UI}.
+   *
+   * @param ui     The {@link UI} instance.
+   * @param object The type of web storage.
+   *
+   * @return The cache, or {@code null}, if none is installed.
+   */
+  public static BrowserStorageCache find(final UI ui, final BrowserStorage.WebStorageObject object) {
+    Arguments.requireNotNull(ui);
+    Arguments.requireNotNull(object);
+
+    return (BrowserStorageCache)ComponentUtil.getData(ui, dataKey(object));
+  }
+
+  private static String dataKey(final BrowserStorage.WebStorageObject object) {
+    return (DATA_KEY_PREFIX + object.name());
+  }
+
+  // Constructors
+  //--------------------------------------------------
+
+  private BrowserStorageCache(final UI ui, final BrowserStorage.WebStorageObject object, final int maxSize) {
+    super();
+
+    this.ui = ui;
+    this.object = object;
+
+    this.maxSize = maxSize;
+    this.entries = new LruMap(maxSize);
+    this.keyVersions = new LinkedHashMap<>();
+  }
+
+  // Fields
+  //--------------------------------------------------
+
+  private final UI ui;
+
+  private final BrowserStorage.WebStorageObject object;
+
+  private final int maxSize;
+
+  /**
+   * Known items.
+   * A {@code null} value means the item is known to be missing.
+   */
+  private final LruMap entries;
+
+  /**
+   * Incremented on every modification.
+   */
+  private long version;
+
+  /**
+   * The version of the last modification of recently modified keys, least recently modified first.
+   * Used to discard the result of a read that raced with a write of the same key; reads of other keys are unaffected.
+   * Holds at most {@link #maxSize} keys.
+   */
+  private final LinkedHashMap<String, Long> keyVersions;
+
+  /**
+   * The results of reads that started before this version are discarded, whatever their key.
+   * Raised when all items are modified, and when a key is dropped from {@link #keyVersions}.
+   */
+  private long floorVersion;
+
+  /**
+   * Reads started by {@link #prefetch(Collection)} that have not completed yet, by key.
+   */
+  private final Map<String, CompletableFuture<String>> prefetches = new HashMap<>();
+
+  private Registration changeListenerRegistration;
+
+  // Methods
+  //--------------------------------------------------
+
+  /**
+   * Gets whether the value of an item is known.
+   *
+   * @param key The key of the item.
+   *
+   * @return {@code true}, if the value is known; {@code false}, otherwise.
+   */
+  public boolean contains(final String key) {
+    Arguments.requireNotNull(key);
+
+    return entries.containsKey(key);
+  }
+
+  /**
+   * Fetches items from the browser in a single round trip, unless their values are already known or being fetched.
+   * <p>
+   * Reads of these items through {@link BrowserStorage#getItem(UI, BrowserStorage.WebStorageObject, String)} that start before the values arrive
+   * complete with the fetched values, rather than making their own round trips.
+   *
+   * @param keys The keys of the items.
+   *
+   * @return A {@link CompletableFuture} which completes when the values are known.
+   */
+  public CompletableFuture<Void> prefetch(final Collection<String> keys) {
+    Arguments.requireNotNull(keys);
+
+    final List<String> missingKeys = new ArrayList<>();
+
+    for(final String key : keys) {
+      Arguments.requireNotNull(key);
+
+      if(!entries.containsKey(key) && !prefetches.containsKey(key)) missingKeys.add(key);
+    }
+
+    if(missingKeys.isEmpty()) return CompletableFuture.completedFuture(null);
+
+    final Map<String, CompletableFuture<String>> futures = new HashMap<>();
+
+    for(final String key : missingKeys) {
+      final CompletableFuture<String> future = new CompletableFuture<>();
+
+      futures.put(key, future);
+      prefetches.put(key, future);
+    }
+
+    return BrowserStorage.getItems(ui, object, missingKeys)
+        .whenComplete((items, throwable) -> {
+          for(final Map.Entry<String, CompletableFuture<String>> entry : futures.entrySet()) {
+            prefetches.remove(entry.getKey(), entry.getValue());
+
+            if(throwable != null) {
+              entry.getValue().completeExceptionally(throwable);
+            } else {
+              entry.getValue().complete(items.get(entry.getKey()));
+            }
+          }
+        })
+        .thenApply(items -> null);
+  }
+
+  /**
+   * Invalidates an item, so the next read asks the browser.
+   *
+   * @param key The key of the item.
+   */
+  public void invalidate(final String key) {
+    Arguments.requireNotNull(key);
+
+    modified(key);
+
+    entries.remove(key);
+    prefetches.remove(key);
+  }
+
+  /**
+   * Invalidates all items.
+   */
+  public void invalidateAll() {
+    modifiedAll();
+
+    entries.clear();
+    prefetches.clear();
+  }
+
+  /**
+   * Gets the number of known items.
+   *
+   * @return The number of known items.
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  // Package-private methods, used by BrowserStorage.
+  //
+
+  /**
+   * Gets the value of a known item.
+   * Must only be called if {@link #contains(String)} is {@code true}.
+   */
+  String get(final String key) {
+    return entries.get(key);
+  }
+
+  /**
+   * Finds the read of an item started by {@link #prefetch(Collection)}.
+   *
+   * @return The read, or {@code null}, if the item is not being prefetched.
+   */
+  CompletableFuture<String> findPrefetch(final String key) {
+    return prefetches.get(key);
+  }
+
+  /**
+   * Records that an item was written by the server.
+   */
+  void put(final String key, final String value) {
+    modified(key);
+
+    // Storage.setItem() converts the value to a string, so null becomes "null".
+    entries.put(key, value != null ? value : "null");
+    prefetches.remove(key);
+  }
+
+  /**
+   * Records that an item was removed by the server.
+   */
+  void remove(final String key) {
+    modified(key);
+
+    entries.put(key, null);
+    prefetches.remove(key);
+  }
+
+  /**
+   * Records that the storage was cleared by the server.
+   */
+  void clear() {
+    modifiedAll();
+
+    entries.replaceAll((key, value) -> null);
+    prefetches.clear();
+  }
+
+  /**
+   * Records a value read from the browser, unless the item was modified since the read started.
+   *
+   * @param readVersion The result of {@link #getVersion()} when the read started.
+   */
+  void putRead(final String key, final String value, final long readVersion) {
+    if(readVersion < floorVersion) return;
+
+    final Long keyVersion = keyVersions.get(key);
+
+    if(keyVersion != null && keyVersion > readVersion) return;
+
+    entries.put(key, value);
+  }
+
+  long getVersion() {
+    return version;
+  }
+
+  private void modified(final String key) {
+    version++;
+
+    // Re-inserted, so that the map stays ordered by version.
+    keyVersions.remove(key);
+    keyVersions.put(key, version);
+
+    if(keyVersions.size() > maxSize) {
+      final Iterator<Long> iterator = keyVersions.values().iterator();
+
+      // The dropped version is the smallest, so reads that started after it are still accepted.
+      floorVersion = Math.max(floorVersion, iterator.next());
+      iterator.remove();
+    }
+  }
+
+  private void modifiedAll() {
+    version++;
+
+    floorVersion = version;
+    keyVersions.clear();
+  }
+
+  private void listen() {
+    changeListenerRegistration = BrowserStorage.addChangeListener(ui, object, "", event -> {
+      for(final BrowserStorageChangeEvent.Change change : event.getChanges()) {
+        if(change.isClear()) {
+          invalidateAll();
+        } else {
+          invalidate(change.getKey());
+        }
+      }
+    });
+  }
+
+  private void unlisten() {
+    if(changeListenerRegistration != null) {
+      changeListenerRegistration.remove();
+      changeListenerRegistration = null;
+    }
+  }
+
+  // Getters
+  //--------------------------------------------------
+
+  public UI getUi() {
+    return ui;
+  }
+
+  public BrowserStorage.WebStorageObject getObject() {
+    return object;
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  // Nested
+  //--------------------------------------------------
+
+  /**
+   * An access-ordered map that evicts its least recently used entry when full.
+   *
+   * @author Oliver Yasuna
+   */
+  private static final class LruMap extends LinkedHashMap<String, String> {
+
+    // Constructors
+    //--------------------------------------------------
+
+    private LruMap(final int maxSize) {
+      super(16, 0.75f, true);
+
+      this.maxSize = maxSize;
+    }
+
+    // Fields
+    //--------------------------------------------------
+
+    private final int maxSize;
+
+    // Overrides
+    //--------------------------------------------------
+
+    // LinkedHashMap
+    //
+
+    @Override
+    protected boolean removeEldestEntry(final Map.Entry<String, String> eldest) {
+      return (size() > maxSize);
+    }
+
+  }
+
+}
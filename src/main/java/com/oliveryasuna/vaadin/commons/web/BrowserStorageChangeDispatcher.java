@@ -0,0 +1,212 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.oliveryasuna.vaadin.commons.web;
+
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.dom.DomListenerRegistration;
+import com.vaadin.flow.shared.Registration;
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+import elemental.json.JsonType;
+import elemental.json.JsonValue;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Dispatches browser storage changes made by other browser tabs to the {@link BrowserStorageChangeListener}s of a {@link UI}.
+ * <p>
+ * A single {@code storage} event handler is registered in the browser per {@link UI}.
+ * It drops events for keys that match no registered prefix, merges changes to the same key, and debounces bursts, so the server receives batched
+ * change sets.
+ *
+ * @author Oliver Yasuna
+ * @since 3.0.0
+ */
+final class BrowserStorageChangeDispatcher implements Serializable {
+
+  // Static fields
+  //--------------------------------------------------
+
+  /**
+   * The time, in milliseconds, the browser waits for further changes before sending a batch.
+   */
+  static final int DEBOUNCE_MILLIS = 100;
+
+  private static final String DATA_KEY = BrowserStorageChangeDispatcher.class.getName();
+
+  private static final String EVENT_TYPE = "flow-commons-storage-change";
+
+  // Static utility methods
+  //--------------------------------------------------
+
+  /**
+   * Gets the dispatcher for a {@link UI}, creating it if needed.
+   */
+  static BrowserStorageChangeDispatcher get(final UI ui) {
+    final BrowserStorageChangeDispatcher existing = (BrowserStorageChangeDispatcher)ComponentUtil.getData(ui, DATA_KEY);
+
+    if(existing != null) return existing;
+
+    final BrowserStorageChangeDispatcher dispatcher = new BrowserStorageChangeDispatcher(ui);
+
+    ComponentUtil.setData(ui, DATA_KEY, dispatcher);
+
+    return dispatcher;
+  }
+
+  // Constructors
+  //--------------------------------------------------
+
+  private BrowserStorageChangeDispatcher(final UI ui) {
+    super();
+
+    this.ui = ui;
+  }
+
+  // Fields
+  //--------------------------------------------------
+
+  private final UI ui;
+
+  private final List<Subscription> subscriptions = new ArrayList<>();
+
+  private DomListenerRegistration domListenerRegistration;
+
+  // Methods
+  //--------------------------------------------------
+
+  Registration addListener(final BrowserStorage.WebStorageObject object, final String keyPrefix, final BrowserStorageChangeListener listener) {
+    final Subscription subscription = new Subscription(object, keyPrefix, listener);
+
+    subscriptions.add(subscription);
+
+    if(domListenerRegistration == null) {
+      domListenerRegistration = ui.getElement().addEventListener(EVENT_TYPE, event -> dispatch(event.getEventData().get("event.detail")));
+      domListenerRegistration.addEventData("event.detail");
+    }
+
+    updateClient();
+
+    return () -> {
+      if(!subscriptions.remove(subscription)) return;
+
+      if(subscriptions.isEmpty() && domListenerRegistration != null) {
+        domListenerRegistration.remove();
+        domListenerRegistration = null;
+      }
+
+      updateClient();
+    };
+  }
+
+  /**
+   * Sends the prefixes of all subscriptions, by storage object, to the browser.
+   * The handler is installed on first use and uninstalled when there are no more subscriptions.
+   */
+  private void updateClient() {
+    final JsonObject filters = Json.createObject();
+
+    for(final Subscription subscription : subscriptions) {
+      final String name = subscription.object.getJavaScriptName();
+
+      if(!filters.hasKey(name)) filters.put(name, Json.createArray());
+
+      final JsonArray prefixes = filters.getArray(name);
+
+      prefixes.set(prefixes.length(), subscription.keyPrefix);
+    }
+
+    ui.getElement().executeJs(
+        "const el=this;const t=$0;"
+        + "if($3){const st=el.__fcStorage;if(st){window.removeEventListener('storage',st.h);clearTimeout(st.t);delete el.__fcStorage;}return;}"
+        + "const st=el.__fcStorage||(el.__fcStorage={q:new Map(),t:0});st.f=$1;st.d=$2;if(st.h)return;"
+        + "st.h=e=>{const a=e.storageArea===window.localStorage?'localStorage':e.storageArea===window.sessionStorage?'sessionStorage':null;"
+        + "const ps=a&&st.f[a];if(!ps||(e.key!==null&&!ps.some(p=>e.key.startsWith(p))))return;"
+        + "const id=JSON.stringify([a,e.key]);const c=st.q.get(id);if(c){c[3]=e.newValue;}else{st.q.set(id,[a,e.key,e.oldValue,e.newValue]);}"
+        + "if(!st.t)st.t=setTimeout(()=>{const q=Array.from(st.q.values());st.q.clear();st.t=0;el.dispatchEvent(new CustomEvent(t,{detail:q}));},st.d);};"
+        + "window.addEventListener('storage',st.h);",
+        EVENT_TYPE, filters, DEBOUNCE_MILLIS, subscriptions.isEmpty());
+  }
+
+  private void dispatch(final JsonValue detail) {
+    if(detail == null || detail.getType() != JsonType.ARRAY) return;
+
+    final JsonArray changes = (JsonArray)detail;
+
+    // Copied, as listeners may remove their registrations.
+    for(final Subscription subscription : new ArrayList<>(subscriptions)) {
+      final List<BrowserStorageChangeEvent.Change> matched = new ArrayList<>();
+
+      for(int i = 0; i < changes.length(); i++) {
+        final JsonArray change = changes.getArray(i);
+
+        if(!subscription.object.getJavaScriptName().equals(change.getString(0))) continue;
+
+        final String key = asNullableString(change.get(1));
+
+        if(key != null && !key.startsWith(subscription.keyPrefix)) continue;
+
+        matched.add(new BrowserStorageChangeEvent.Change(key, asNullableString(change.get(2)), asNullableString(change.get(3))));
+      }
+
+      if(!matched.isEmpty()) subscription.listener.onChange(new BrowserStorageChangeEvent(ui, subscription.object, matched));
+    }
+  }
+
+  private static String asNullableString(final JsonValue value) {
+    return (value != null && value.getType() != JsonType.NULL ? value.asString() : null);
+  }
+
+  // Nested
+  //--------------------------------------------------
+
+  /**
+   * A registered listener.
+   *
+   * @author Oliver Yasuna
+   */
+  private static final class Subscription implements Serializable {
+
+    // Constructors
+    //--------------------------------------------------
+
+    private Subscription(final BrowserStorage.WebStorageObject object, final String keyPrefix, final BrowserStorageChangeListener listener) {
+      super();
+
+      this.object = object;
+      this.keyPrefix = keyPrefix;
+      this.listener = listener;
+    }
+
+    // Fields
+    //--------------------------------------------------
+
+    private final BrowserStorage.WebStorageObject object;
+
+    private final String keyPrefix;
+
+    private final BrowserStorageChangeListener listener;
+
+  }
+
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.oliveryasuna.vaadin.commons.web;
+
+import com.oliveryasuna.commons.language.condition.Arguments;
+import com.oliveryasuna.commons.language.marker.Immutable;
+import com.vaadin.flow.component.UI;
+
+import java.io.Serializable;
+import java.util.EventObject;
+import java.util.List;
+
+/**
+ * A batch of changes made to a browser storage object by other browser tabs.
+ *
+ * @author Oliver Yasuna
+ * @since 3.0.0
+ */
+public class BrowserStorageChangeEvent extends EventObject {
+
+  // Constructors
+  //--------------------------------------------------
+
+  /**
+   * Creates a new event.
+   *
+   * @param source  The {@link UI} in which the changes were observed.
+   * @param object  The type of web storage.
+   * @param changes The changes, in the order they were observed.
+   */
+  public BrowserStorageChangeEvent(final UI source, final BrowserStorage.WebStorageObject object, final List<Change> changes) {
+    super(source);
+
+    Arguments.requireNotNull(object);
+    Arguments.requireNotNull(changes);
+
+    this.object = object;
+    this.changes = List.copyOf(changes);
+  }
+
+  // Fields
+  //--------------------------------------------------
+
+  private final BrowserStorage.WebStorageObject object;
+
+  private final List<Change> changes;
+
+  // Overrides
+  //--------------------------------------------------
+
+  // EventObject
+  //
+
+  @Override
+  public UI getSource() {
+    return (UI)super.getSource();
+  }
+
+  // Getters
+  //--------------------------------------------------
+
+  public BrowserStorage.WebStorageObject getObject() {
+    return object;
+  }
+
+  public List<Change> getChanges() {
+    return changes;
+  }
+
+  // Nested
+  //--------------------------------------------------
+
+  /**
+   * A change to a single item, or the clearing of the storage.
+   * <p>
+   * Changes to the same key within a batch are merged into one, with the first old value and the last new value.
+   *
+   * @author Oliver Yasuna
+   */
+  @Immutable
+  public static final class Change implements Serializable {
+
+    // Constructors
+    //--------------------------------------------------
+
+    /**
+     * Creates a new change.
+     *
+     * @param key      The key of the item. {@code null} if the storage was cleared.
+     * @param oldValue The old value of the item. {@code null} if the item was added.
+     * @param newValue The new value of the item. {@code null} if the item was removed.
+     */
+    public Change(final String key, final String oldValue, final String newValue) {
+      super();
+
+      this.key = key;
+      this.oldValue = oldValue;
+      this.newValue = newValue;
+    }
+
+    // Fields
+    //--------------------------------------------------
+
+    private final String key;
+
+    private final String oldValue;
+
+    private final String newValue;
+
+    // Methods
+    //--------------------------------------------------
+
+    /**
+     * Gets whether this change represents the clearing of the storage.
+     *
+     * @return {@code true}, if the storage was cleared; {@code false}, otherwise.
+     */
+    public boolean isClear() {
+      return (key == null);
+    }
+
+    // Getters
+    //--------------------------------------------------
+
+    public String getKey() {
+      return key;
+    }
+
+    public String getOldValue() {
+      return oldValue;
+    }
+
+    public String getNewValue() {
+      return newValue;
+    }
+
+  }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.oliveryasuna.vaadin.commons.web;
+
+import com.oliveryasuna.commons.language.condition.Arguments;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.server.ServiceInitEvent;
+import com.vaadin.flow.server.UIInitEvent;
+import com.vaadin.flow.server.UIInitListener;
+import com.vaadin.flow.server.VaadinServiceInitListener;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Prefetches storage items when a {@link UI} is initialized.
+ * <p>
+ * A {@link BrowserStorageCache} is installed in each new {@link UI}, and the declared items are fetched with
+ * {@link BrowserStorageCache#prefetch(Collection)}.
+ * The request is sent with the first response, so the values arrive with the first request from the client, rather than in a round trip of
+ * their own after the initial render.
+ * Reads of these items that start before then complete with the fetched values.
+ * <p>
+ * Register it from a {@link VaadinServiceInitListener}:
+ * <pre>{@code
+ * public void serviceInit(ServiceInitEvent event) {
+ *   event.getSource().addUIInitListener(new BrowserStorageHydrator(WebStorageObject.LOCAL_STORAGE, List.of("theme", "sidebar")));
+ * }
+ * }</pre>
+ *
+ * @author Oliver Yasuna
+ * @see ServiceInitEvent
+ * @since 3.0.0
+ */
+public class BrowserStorageHydrator implements UIInitListener {
+
+  // Constructors
+  //--------------------------------------------------
+
+  /**
+   * @param object  The type of web storage.
+   * @param keys    The keys of the items to prefetch.
+   * @param maxSize The maximum number of entries of the installed cache.
+   */
+  public BrowserStorageHydrator(final BrowserStorage.WebStorageObject object, final Collection<String> keys, final int maxSize) {
+    super();
+
+    Arguments.requireNotNull(object);
+    Arguments.requireNotNull(keys);
+    Arguments.requireGreaterOrSame(maxSize, 1);
+
+    this.object = object;
+    this.keys = List.copyOf(keys);
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * Calls {@link #BrowserStorageHydrator(BrowserStorage.WebStorageObject, Collection, int)} with the specific last argument,
+   * {@link BrowserStorageCache#DEFAULT_MAX_SIZE}.
+   */
+  public BrowserStorageHydrator(final BrowserStorage.WebStorageObject object, final Collection<String> keys) {
+    this(object, keys, BrowserStorageCache.DEFAULT_MAX_SIZE);
+  }
+
+  // Fields
+  //--------------------------------------------------
+
+  private final BrowserStorage.WebStorageObject object;
+
+  private final List<String> keys;
+
+  private final int maxSize;
+
+  // Overrides
+  //--------------------------------------------------
+
+  // UIInitListener
+  //
+
+  @Override
+  public void uiInit(final UIInitEvent event) {
+    BrowserStorageCache.install(event.getUI(), object, maxSize)
+        .prefetch(keys);
+  }
+
+  // Getters
+  //--------------------------------------------------
+
+  public BrowserStorage.WebStorageObject getObject() {
+    return object;
+  }
+
+  public List<String> getKeys() {
+    return keys;
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.oliveryasuna.vaadin.commons.web;
+
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.internal.StateTree;
+import elemental.json.Json;
+import elemental.json.JsonArray;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+
+/**
+ * Buffers storage writes for a {@link UI} and storage object until the server response is written.
+ * <p>
+ * Only the last write per key is kept.
+ * All buffered writes are flushed as a single script from {@link UI#beforeClientResponse(com.vaadin.flow.component.HasElement,
+ * com.vaadin.flow.function.SerializableConsumer)}.
+ *
+ * @author Oliver Yasuna
+ * @since 3.0.0
+ */
+final class BrowserStorageWriteBuffer implements Serializable {
+
+  // Static fields
+  //--------------------------------------------------
+
+  private static final String DATA_KEY_PREFIX = BrowserStorageWriteBuffer.class.getName() + ".";
+
+  // Static utility methods
+  //--------------------------------------------------
+
+  /**
+   * Gets the buffer for a storage object in a {@link UI}, creating it if needed.
+   */
+  static BrowserStorageWriteBuffer get(final UI ui, final BrowserStorage.WebStorageObject object) {
+    final BrowserStorageWriteBuffer existing = find(ui, object);
+
+    if(existing != null) return existing;
+
+    final BrowserStorageWriteBuffer buffer = new BrowserStorageWriteBuffer(ui, object);
+
+    ComponentUtil.setData(ui, dataKey(object), buffer);
+
+    return buffer;
+  }
+
+  /**
+   * Finds the buffer for a storage object in a {@link UI}.
+   *
+   * @return The buffer, or {@code null}, if none was created.
+   */
+  static BrowserStorageWriteBuffer find(final UI ui, final BrowserStorage.WebStorageObject object) {
+    return (BrowserStorageWriteBuffer)ComponentUtil.getData(ui, dataKey(object));
+  }
+
+  private static String dataKey(final BrowserStorage.WebStorageObject object) {
+    return (DATA_KEY_PREFIX + object.name());
+  }
+
+  // Constructors
+  //--------------------------------------------------
+
+  private BrowserStorageWriteBuffer(final UI ui, final BrowserStorage.WebStorageObject object) {
+    super();
+
+    this.ui = ui;
+    this.object = object;
+  }
+
+  // Fields
+  //--------------------------------------------------
+
+  private final UI ui;
+
+  private final BrowserStorage.WebStorageObject object;
+
+  /**
+   * Pending writes, by key.
+   */
+  private final Map<String, PendingWrite> pendingWrites = new LinkedHashMap<>();
+
+  /**
+   * Futures completed when the next flush is acknowledged.
+   * Includes futures of writes that were superseded or discarded.
+   */
+  private final List<CompletableFuture<Void>> pendingFutures = new ArrayList<>();
+
+  private StateTree.ExecutionRegistration flushRegistration;
+
+  // Methods
+  //--------------------------------------------------
+
+  CompletableFuture<Void> setItem(final String key, final String value) {
+    return buffer(key, new PendingWrite(false, value));
+  }
+
+  CompletableFuture<Void> removeItem(final String key) {
+    return buffer(key, new PendingWrite(true, null));
+  }
+
+  boolean isPending(final String key) {
+    return pendingWrites.containsKey(key);
+  }
+
+  /**
+   * Gets the value an item will have after the flush.
+   * Must only be called if {@link #isPending(String)} is {@code true}.
+   */
+  String getPendingValue(final String key) {
+    final PendingWrite write = pendingWrites.get(key);
+
+    if(write.remove) return null;
+
+    // Storage.setItem() converts the value to a string, so null becomes "null".
+    return (write.value != null ? write.value : "null");
+  }
+
+  /**
+   * Performs an action for each pending write, in order, passing the key and the value the item will have after the flush.
+   */
+  void forEachPending(final BiConsumer<String, String> action) {
+    pendingWrites.keySet().forEach(key -> action.accept(key, getPendingValue(key)));
+  }
+
+  /**
+   * Discards a pending write, as it has been superseded by an immediate write.
+   */
+  void discard(final String key) {
+    pendingWrites.remove(key);
+  }
+
+  /**
+   * Discards all pending writes, as they have been superseded by an immediate clear.
+   */
+  void discardAll() {
+    pendingWrites.clear();
+  }
+
+  private CompletableFuture<Void> buffer(final String key, final PendingWrite write) {
+    final CompletableFuture<Void> future = new CompletableFuture<>();
+
+    pendingWrites.put(key, write);
+    pendingFutures.add(future);
+
+    if(flushRegistration == null) flushRegistration = ui.beforeClientResponse(ui, context -> flush());
+
+    return future;
+  }
+
+  private void flush() {
+    flushRegistration = null;
+
+    final List<CompletableFuture<Void>> futures = new ArrayList<>(pendingFutures);
+
+    pendingFutures.clear();
+
+    if(pendingWrites.isEmpty()) {
+      futures.forEach(future -> future.complete(null));
+
+      return;
+    }
+
+    final JsonArray writes = Json.createArray();
+
+    for(final Map.Entry<String, PendingWrite> entry : pendingWrites.entrySet()) {
+      final JsonArray write = Json.createArray();
+
+      write.set(0, entry.getKey());
+      write.set(1, entry.getValue().value != null ? Json.create(entry.getValue().value) : Json.createNull());
+      write.set(2, entry.getValue().remove);
+
+      writes.set(writes.length(), write);
+    }
+
+    pendingWrites.clear();
+
+    ClientCalls.execute(ui, "BrowserStorage.flushDeferred", Void.class,
+            "const s=window[$0];for(const w of $1){if(w[2])s.removeItem(w[0]);else s.setItem(w[0],w[1]);}",
+            object.getJavaScriptName(), writes)
+        .whenComplete((result, throwable) -> {
+          for(final CompletableFuture<Void> future : futures) {
+            if(throwable != null) {
+              future.completeExceptionally(throwable);
+            } else {
+              future.complete(null);
+            }
+          }
+        });
+  }
+
+  // Nested
+  //--------------------------------------------------
+
+  /**
+   * A pending write.
+   *
+   * @author Oliver Yasuna
+   */
+  private static final class PendingWrite implements Serializable {
+
+    // Constructors
+    //--------------------------------------------------
+
+    private PendingWrite(final boolean remove, final String value) {
+      super();
+
+      this.remove = remove;
+      this.value = value;
+    }
+
+    // Fields
+    //--------------------------------------------------
+
+    private final boolean remove;
+
+    private final String value;
+
+  }
+
+}
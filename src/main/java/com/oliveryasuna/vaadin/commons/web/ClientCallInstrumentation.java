@@ -0,0 +1,95 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.oliveryasuna.vaadin.commons.web;
+
+import com.oliveryasuna.commons.language.condition.Arguments;
+import com.oliveryasuna.commons.language.exception.UnsupportedInstantiationException;
+import com.oliveryasuna.commons.language.marker.Utility;
+import com.vaadin.flow.component.UI;
+
+/**
+ * Opt-in instrumentation of client calls made by {@link BrowserStorage}, {@link Cookies}, {@link IndexedDbStorage} and {@link JavaScript}.
+ * <p>
+ * Nothing is measured until a sink is installed with {@link #setSink(ClientCallSink)}.
+ * Latencies are measured from when a call is made on the server, so they include the remainder of the request in which it is made and any time spent
+ * queued by the {@link ClientCallPolicy}.
+ *
+ * @author Oliver Yasuna
+ * @since 3.0.0
+ */
+@Utility
+public final class ClientCallInstrumentation {
+
+  // Static fields
+  //--------------------------------------------------
+
+  private static volatile ClientCallSink sink;
+
+  // Static utility methods
+  //--------------------------------------------------
+
+  /**
+   * Installs a sink, replacing the current one.
+   *
+   * @param sink The sink, or {@code null}, to disable instrumentation.
+   */
+  public static void setSink(final ClientCallSink sink) {
+    ClientCallInstrumentation.sink = sink;
+  }
+
+  /**
+   * Gets the installed sink.
+   *
+   * @return The sink, or {@code null}, if instrumentation is disabled.
+   */
+  public static ClientCallSink getSink() {
+    return sink;
+  }
+
+  /**
+   * Gets the number of calls of a {@link UI} in flight, excluding calls queued by its {@link ClientCallPolicy}.
+   * Calls are counted whether or not a sink is installed.
+   *
+   * @param ui The {@link UI} instance.
+   *
+   * @return The number of calls in flight.
+   */
+  public static int getInFlightCount(final UI ui) {
+    Arguments.requireNotNull(ui);
+
+    return ClientCalls.getInFlightCount(ui);
+  }
+
+  /**
+   * Calls {@link #getInFlightCount(UI)} with the specific first argument, {@code UI.getCurrent()}.
+   */
+  public static int getInFlightCount() {
+    return getInFlightCount(UI.getCurrent());
+  }
+
+  // Constructors
+  //--------------------------------------------------
+
+  private ClientCallInstrumentation() {
+    super();
+
+    throw new UnsupportedInstantiationException();
+  }
+
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.oliveryasuna.vaadin.commons.web;
+
+import com.oliveryasuna.commons.language.condition.Arguments;
+import com.oliveryasuna.commons.language.marker.Immutable;
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.UI;
+
+import java.io.Serializable;
+import java.time.Duration;
+
+/**
+ * Limits of client calls made by {@link BrowserStorage}, {@link Cookies}, {@link IndexedDbStorage} and {@link JavaScript}.
+ * <p>
+ * A policy bounds how long a call may wait for the client and how many calls of a {@link UI} may be in flight at once.
+ * Calls that time out complete exceptionally with a {@link java.util.concurrent.TimeoutException}, so futures of a disconnected client do not accumulate
+ * in the session.
+ * Calls beyond the in-flight limit are either queued until another call completes, or rejected with a
+ * {@link java.util.concurrent.RejectedExecutionException}.
+ * <p>
+ * Policies are immutable; each {@code with} method returns a new policy.
+ *
+ * @author Oliver Yasuna
+ * @since 3.0.0
+ */
+@Immutable
+public final class ClientCallPolicy implements Serializable {
+
+  // Static fields
+  //--------------------------------------------------
+
+  /**
+   * A policy without limits.
+   */
+  public static final ClientCallPolicy UNLIMITED = new ClientCallPolicy(null, 0, Overflow.QUEUE);
+
+  private static final String DATA_KEY = ClientCallPolicy.class.getName();
+
+  private static volatile ClientCallPolicy defaultPolicy = UNLIMITED;
+
+  // Static utility methods
+  //--------------------------------------------------
+
+  /**
+   * Sets the policy of {@link UI}s without their own policy.
+   *
+   * @param policy The policy.
+   */
+  public static void setDefault(final ClientCallPolicy policy) {
+    Arguments.requireNotNull(policy);
+
+    defaultPolicy = policy;
+  }
+
+  /**
+   * Gets the policy of {@link UI}s without their own policy.
+   *
+   * @return The policy.
+   */
+  public static ClientCallPolicy getDefault() {
+    return defaultPolicy;
+  }
+
+  /**
+   * Sets the policy of a {@link UI}.
+   * Calls already issued or queued are not affected.
+   *
+   * @param ui     The {@link UI} instance.
+   * @param policy The policy, or {@code null}, to use the default policy.
+   */
+  public static void set(final UI ui, final ClientCallPolicy policy) {
+    Arguments.requireNotNull(ui);
+
+    ComponentUtil.setData(ui, DATA_KEY, policy);
+  }
+
+  /**
+   * Calls {@link #set(UI, ClientCallPolicy)} with the specific first argument, {@code UI.getCurrent()}.
+   *
+   * @see #set(UI, ClientCallPolicy)
+   */
+  public static void set(final ClientCallPolicy policy) {
+    set(UI.getCurrent(), policy);
+  }
+
+  /**
+   * Gets the policy of a {@link UI}.
+   *
+   * @param ui The {@link UI} instance.
+   *
+   * @return The policy of the {@link UI}, or the default policy, if it has none.
+   */
+  public static ClientCallPolicy get(final UI ui) {
+    Arguments.requireNotNull(ui);
+
+    final ClientCallPolicy policy = (ClientCallPolicy)ComponentUtil.getData(ui, DATA_KEY);
+
+    return (policy != null ? policy : defaultPolicy);
+  }
+
+  /**
+   * Calls {@link #get(UI)} with the specific first argument, {@code UI.getCurrent()}.
+   *
+   * @see #get(UI)
+   */
+  public static ClientCallPolicy get() {
+    return get(UI.getCurrent());
+  }
+
+  // Constructors
+  //--------------------------------------------------
+
+  private ClientCallPolicy(final Duration timeout, final int maxInFlightCount, final Overflow overflow) {
+    super();
+
+    this.timeout = timeout;
+    this.maxInFlightCount = maxInFlightCount;
+    this.overflow = overflow;
+  }
+
+  // Fields
+  //--------------------------------------------------
+
+  private final Duration timeout;
+
+  private final int maxInFlightCount;
+
+  private final Overflow overflow;
+
+  // Methods
+  //--------------------------------------------------
+
+  /**
+   * @param timeout How long a call may take, from when it is made until the client answers, or {@code null}, to wait indefinitely.
+   *                Time spent queued counts towards the timeout.
+   *
+   * @return A policy with the timeout.
+   */
+  public ClientCallPolicy withTimeout(final Duration timeout) {
+    if(timeout != null && (timeout.isNegative() || timeout.isZero())) throw new IllegalArgumentException("Timeout must be positive.");
+
+    return new ClientCallPolicy(timeout, maxInFlightCount, overflow);
+  }
+
+  /**
+   * @param maxInFlightCount The number of calls of a {@link UI} that may be in flight at once, or {@code 0}, for no limit.
+   *
+   * @return A policy with the in-flight limit.
+   */
+  public ClientCallPolicy withMaxInFlightCount(final int maxInFlightCount) {
+    if(maxInFlightCount < 0) throw new IllegalArgumentException("Maximum in-flight count must not be negative.");
+
+    return new ClientCallPolicy(timeout, maxInFlightCount, overflow);
+  }
+
+  /**
+   * @param overflow What to do with calls beyond the in-flight limit.
+   *
+   * @return A policy with the overflow behavior.
+   */
+  public ClientCallPolicy withOverflow(final Overflow overflow) {
+    Arguments.requireNotNull(overflow);
+
+    return new ClientCallPolicy(timeout, maxInFlightCount, overflow);
+  }
+
+  // Getters
+  //--------------------------------------------------
+
+  public Duration getTimeout() {
+    return timeout;
+  }
+
+  public int getMaxInFlightCount() {
+    return maxInFlightCount;
+  }
+
+  public Overflow getOverflow() {
+    return overflow;
+  }
+
+  // Nested
+  //--------------------------------------------------
+
+  /**
+   * What to do with calls beyond the in-flight limit.
+   *
+   * @author Oliver Yasuna
+   */
+  public enum Overflow {
+
+    // Values
+    //--------------------------------------------------
+
+    /**
+     * Queue the call until another call of the {@link UI} completes.
+     * Queued calls are issued in order.
+     */
+    QUEUE,
+
+    /**
+     * Reject the call immediately.
+     */
+    FAIL_FAST
+
+  }
+
+}
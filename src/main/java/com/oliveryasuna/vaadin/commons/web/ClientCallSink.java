@@ -0,0 +1,98 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.oliveryasuna.vaadin.commons.web;
+
+import com.vaadin.flow.component.UI;
+
+/**
+ * Receives measurements of client calls, i.e., JavaScript executed in the browser whose result the server waits for.
+ * <p>
+ * Sinks are installed with {@link ClientCallInstrumentation#setSink(ClientCallSink)}.
+ * Methods are called while holding the session lock of the {@link UI}, but sinks shared by several sessions must be thread-safe.
+ *
+ * @author Oliver Yasuna
+ * @see InMemoryClientCallSink
+ * @see JfrClientCallSink
+ * @since 3.0.0
+ */
+public interface ClientCallSink {
+
+  // Methods
+  //--------------------------------------------------
+
+  /**
+   * Called when a call is issued.
+   *
+   * @param ui            The {@link UI} instance.
+   * @param operation     The type of operation, such as {@code "BrowserStorage.getItem"}.
+   * @param inFlightCount The number of calls of the {@link UI} in flight, including this one.
+   */
+  void callStarted(UI ui, String operation, int inFlightCount);
+
+  /**
+   * Called when a call has completed.
+   * <p>
+   * Calls that were never issued, because they were rejected, or because they timed out or were cancelled while queued, are only reported here.
+   *
+   * @param ui            The {@link UI} instance.
+   * @param operation     The type of operation, such as {@code "BrowserStorage.getItem"}.
+   * @param latencyNanos  The time, in nanoseconds, from when the call was made until it completed.
+   * @param outcome       The outcome.
+   * @param inFlightCount The number of calls of the {@link UI} still in flight.
+   */
+  void callEnded(UI ui, String operation, long latencyNanos, Outcome outcome, int inFlightCount);
+
+  // Nested
+  //--------------------------------------------------
+
+  /**
+   * The outcome of a client call.
+   *
+   * @author Oliver Yasuna
+   */
+  enum Outcome {
+
+    /**
+     * The client answered successfully.
+     */
+    SUCCESS,
+
+    /**
+     * The client answered with an error, or the result could not be handled.
+     */
+    FAILURE,
+
+    /**
+     * The client did not answer in time.
+     */
+    TIMEOUT,
+
+    /**
+     * The call was cancelled by the server.
+     */
+    CANCELLED,
+
+    /**
+     * The call was rejected, as too many calls of the {@link UI} were in flight.
+     */
+    REJECTED
+
+  }
+
+}
@@ -0,0 +1,447 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.oliveryasuna.vaadin.commons.web;
+
+import com.oliveryasuna.commons.language.exception.UnsupportedInstantiationException;
+import com.oliveryasuna.commons.language.marker.Utility;
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
+import com.vaadin.flow.component.page.PendingJavaScriptResult;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Issues client calls on behalf of {@link BrowserStorage}, {@link Cookies}, {@link IndexedDbStorage} and {@link JavaScript}.
+ * <p>
+ * Calls are subject to the {@link ClientCallPolicy} of their {@link UI} and are reported to the {@link ClientCallSink}, if any.
+ * Completing the future of a call, whether by the client answering, a timeout or {@link CompletableFuture#cancel(boolean) cancellation}, releases the
+ * call: its slot is given to the next queued call, its timeout is cancelled, and if it was not yet sent to the browser, it is not sent at all.
+ * <p>
+ * Public methods that derive their future from the future of a call, such as by {@link CompletableFuture#thenApply(java.util.function.Function)},
+ * pass it through {@link #propagateCancellation(CompletableFuture, CompletableFuture)}, so cancelling the returned future cancels the call.
+ * Futures shared by several callers do not propagate cancellation, as one caller must not cancel the call of others: those of reads answered by a
+ * {@link BrowserStorageCache} prefetch, those of deferred writes, which complete when their buffer is flushed, and those of the calls in a
+ * {@link JavaScriptBatch}, whose {@link JavaScriptBatch#execute()} future does propagate it.
+ * Like other changes to a {@link UI}, futures must only be cancelled while holding the session lock.
+ *
+ * @author Oliver Yasuna
+ * @since 3.0.0
+ */
+@Utility
+final class ClientCalls {
+
+  // Static fields
+  //--------------------------------------------------
+
+  private static final String DATA_KEY = ClientCalls.class.getName();
+
+  /**
+   * Times out calls of all {@link UI}s.
+   * Timing out only hands the call to its {@link UI}, so a single thread suffices.
+   */
+  private static final ScheduledThreadPoolExecutor TIMER = createTimer();
+
+  // Static utility methods
+  //--------------------------------------------------
+
+  /**
+   * Executes JavaScript in a {@link UI}, subject to its {@link ClientCallPolicy}.
+   *
+   * @return A future completed with the result, or exceptionally, if the call failed, timed out or was rejected.
+   */
+  static <T> CompletableFuture<T> execute(final UI ui, final String operation, final Class<T> resultType, final String expression,
+      final Serializable... parameters) {
+    return execute(ui, operation, resultType, Collections.emptyMap(), expression, parameters);
+  }
+
+  /**
+   * Executes JavaScript in a {@link UI}, subject to its {@link ClientCallPolicy}, defining the scripts it needs first.
+   * <p>
+   * Definitions are resolved against the {@link PreparedFunctionRegistry} of the {@link UI} when the call is issued, which is after it leaves the
+   * queue, so a call that is rejected, or cancelled while queued, sends none.
+   * Every call issued before the next response carries the definitions not installed yet, and they are only marked as installed before the response is
+   * written, for the calls that are still to be sent.
+   * A call withdrawn after that, before it was sent, un-marks them again.
+   * Definitions must therefore be idempotent, as they may be sent more than once.
+   *
+   * @param definitions Scripts that define what {@code expression} needs, keyed by their handles.
+   *
+   * @return A future completed with the result, or exceptionally, if the call failed, timed out or was rejected.
+   */
+  static <T> CompletableFuture<T> execute(final UI ui, final String operation, final Class<T> resultType, final Map<String, String> definitions,
+      final String expression, final Serializable... parameters) {
+    final ClientCallPolicy policy = ClientCallPolicy.get(ui);
+    final UiCalls calls = getUiCalls(ui);
+    final Call<T> call = new Call<>(ui, calls, operation, resultType, definitions, expression, parameters);
+
+    if(policy.getMaxInFlightCount() == 0 || calls.inFlightCount < policy.getMaxInFlightCount()) {
+      calls.issue(call);
+    } else if(policy.getOverflow() == ClientCallPolicy.Overflow.QUEUE) {
+      calls.queue.add(call);
+    } else {
+      call.future.completeExceptionally(new RejectedExecutionException(
+          "Client call " + operation + " rejected, as " + calls.inFlightCount + " calls are in flight."));
+
+      return call.future;
+    }
+
+    final Duration timeout = policy.getTimeout();
+
+    if(timeout != null && !call.future.isDone()) call.timeoutTask = TIMER.schedule(call::timeOut, timeout.toNanos(), TimeUnit.NANOSECONDS);
+
+    return call.future;
+  }
+
+  /**
+   * Makes cancelling a future derived from the future of a call also cancel the call.
+   *
+   * @param source  The future of the call, or a future that propagates cancellation to it.
+   * @param derived The future derived from {@code source}.
+   *
+   * @return {@code derived}.
+   */
+  static <T> CompletableFuture<T> propagateCancellation(final CompletableFuture<?> source, final CompletableFuture<T> derived) {
+    derived.whenComplete((result, throwable) -> {
+      if(derived.isCancelled()) source.cancel(false);
+    });
+
+    return derived;
+  }
+
+  /**
+   * Gets the number of calls of a {@link UI} in flight, excluding queued calls.
+   */
+  static int getInFlightCount(final UI ui) {
+    final UiCalls calls = (UiCalls)ComponentUtil.getData(ui, DATA_KEY);
+
+    return (calls != null ? calls.inFlightCount : 0);
+  }
+
+  private static UiCalls getUiCalls(final UI ui) {
+    UiCalls calls = (UiCalls)ComponentUtil.getData(ui, DATA_KEY);
+
+    if(calls == null) {
+      calls = new UiCalls(ui);
+
+      ComponentUtil.setData(ui, DATA_KEY, calls);
+    }
+
+    return calls;
+  }
+
+  private static ScheduledThreadPoolExecutor createTimer() {
+    final ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+      final Thread thread = new Thread(runnable, ClientCalls.class.getSimpleName() + "-timer");
+
+      thread.setDaemon(true);
+
+      return thread;
+    });
+
+    // Otherwise, the timeouts of completed calls would keep them reachable until they would have expired.
+    timer.setRemoveOnCancelPolicy(true);
+
+    return timer;
+  }
+
+  private static ClientCallSink.Outcome outcome(final Throwable throwable) {
+    if(throwable == null) return ClientCallSink.Outcome.SUCCESS;
+
+    final Throwable cause = (throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable);
+
+    if(cause instanceof TimeoutException) return ClientCallSink.Outcome.TIMEOUT;
+    if(cause instanceof CancellationException) return ClientCallSink.Outcome.CANCELLED;
+    if(cause instanceof RejectedExecutionException) return ClientCallSink.Outcome.REJECTED;
+
+    return ClientCallSink.Outcome.FAILURE;
+  }
+
+  // Constructors
+  //--------------------------------------------------
+
+  private ClientCalls() {
+    super();
+
+    throw new UnsupportedInstantiationException();
+  }
+
+  // Nested
+  //--------------------------------------------------
+
+  /**
+   * The calls of a {@link UI}.
+   *
+   * @author Oliver Yasuna
+   */
+  private static final class UiCalls implements Serializable {
+
+    // Constructors
+    //--------------------------------------------------
+
+    private UiCalls(final UI ui) {
+      super();
+
+      this.ui = ui;
+    }
+
+    // Fields
+    //--------------------------------------------------
+
+    private final UI ui;
+
+    /**
+     * Calls waiting for a slot, in order.
+     */
+    private final Deque<Call<?>> queue = new ArrayDeque<>();
+
+    private int inFlightCount;
+
+    // Methods
+    //--------------------------------------------------
+
+    private void issue(final Call<?> call) {
+      inFlightCount++;
+
+      call.issue();
+    }
+
+    /**
+     * Called when a call completes, to give up its slot or its place in the queue.
+     */
+    private void release(final Call<?> call) {
+      if(call.pending != null) {
+        inFlightCount--;
+      } else {
+        queue.remove(call);
+      }
+    }
+
+    /**
+     * Issues queued calls while slots are free.
+     */
+    private void drain() {
+      final int maxInFlightCount = ClientCallPolicy.get(ui).getMaxInFlightCount();
+
+      while(!queue.isEmpty() && (maxInFlightCount == 0 || inFlightCount < maxInFlightCount)) issue(queue.poll());
+    }
+
+  }
+
+  /**
+   * A call, queued or issued.
+   *
+   * @author Oliver Yasuna
+   */
+  private static final class Call<T> implements Serializable {
+
+    // Constructors
+    //--------------------------------------------------
+
+    private Call(final UI ui, final UiCalls calls, final String operation, final Class<T> resultType, final Map<String, String> definitions,
+        final String expression, final Serializable[] parameters) {
+      super();
+
+      this.ui = ui;
+      this.calls = calls;
+      this.operation = operation;
+      this.resultType = resultType;
+      this.definitions = definitions;
+      this.expression = expression;
+      this.parameters = parameters;
+      this.startNanos = System.nanoTime();
+
+      future.whenComplete((result, throwable) -> complete(throwable));
+    }
+
+    // Fields
+    //--------------------------------------------------
+
+    private final UI ui;
+
+    private final UiCalls calls;
+
+    private final String operation;
+
+    private final Class<T> resultType;
+
+    private final CompletableFuture<T> future = new CompletableFuture<>();
+
+    private final long startNanos;
+
+    /**
+     * The definitions, until the call is issued.
+     */
+    private Map<String, String> definitions;
+
+    /**
+     * The expression, until the call is issued.
+     */
+    private String expression;
+
+    /**
+     * The parameters, until the call is issued.
+     */
+    private Serializable[] parameters;
+
+    /**
+     * The pending result, once the call is issued.
+     */
+    private PendingJavaScriptResult pending;
+
+    /**
+     * The sink the start of the call was reported to.
+     */
+    private ClientCallSink sink;
+
+    /**
+     * The scheduled timeout, if any.
+     * Not serialized, as the timer does not survive serialization either.
+     */
+    private transient ScheduledFuture<?> timeoutTask;
+
+    /**
+     * The registry of the {@link UI}, if the call carries definitions.
+     * Kept, as the {@link UI} may be detached when the call completes.
+     */
+    private PreparedFunctionRegistry registry;
+
+    /**
+     * The handles of the definitions the call carries, if any.
+     */
+    private List<String> definedHandles;
+
+    /**
+     * Whether the definitions the call carries were marked as installed.
+     */
+    private boolean definitionsMarked;
+
+    /**
+     * Whether the call was cancelled before it was sent to the browser.
+     */
+    private boolean withdrawn;
+
+    // Methods
+    //--------------------------------------------------
+
+    private void issue() {
+      sink = ClientCallInstrumentation.getSink();
+
+      if(sink != null) sink.callStarted(ui, operation, calls.inFlightCount);
+
+      pending = ui.getPage().executeJs(takeDefinitions() + expression, parameters);
+      definitions = null;
+      expression = null;
+      parameters = null;
+
+      if(definedHandles != null) ui.beforeClientResponse(ui, context -> markDefinitions());
+
+      pending.then(resultType, future::complete, error -> future.completeExceptionally(new PendingJavaScriptResult.JavaScriptException(error)));
+    }
+
+    /**
+     * Gets the definitions not installed in the {@link UI}, recording their handles.
+     */
+    private String takeDefinitions() {
+      if(definitions.isEmpty()) return "";
+
+      registry = PreparedFunctionRegistry.get(ui);
+
+      final StringBuilder script = new StringBuilder();
+
+      definitions.forEach((handle, definition) -> {
+        if(registry.isInstalled(handle)) return;
+
+        script.append(definition);
+
+        if(definedHandles == null) definedHandles = new ArrayList<>();
+
+        definedHandles.add(handle);
+      });
+
+      return script.toString();
+    }
+
+    /**
+     * Marks the definitions the call carries as installed, unless it was withdrawn.
+     * Called before the response that sends the call is written.
+     */
+    private void markDefinitions() {
+      if(withdrawn) return;
+
+      definedHandles.forEach(registry::markInstalled);
+
+      definitionsMarked = true;
+    }
+
+    /**
+     * Completes the call with a {@link TimeoutException}, unless it has completed.
+     * Called from a timer thread.
+     */
+    private void timeOut() {
+      if(future.isDone()) return;
+
+      final TimeoutException exception = new TimeoutException("Client call " + operation + " timed out.");
+
+      try {
+        ui.access(() -> future.completeExceptionally(exception));
+      } catch(final UIDetachedException e) {
+        // Nothing else can touch the UI anymore.
+        future.completeExceptionally(exception);
+      }
+    }
+
+    private void complete(final Throwable throwable) {
+      final boolean issued = (pending != null);
+
+      if(timeoutTask != null) timeoutTask.cancel(false);
+
+      if(issued && throwable != null && pending.cancelExecution()) {
+        withdrawn = true;
+
+        if(definitionsMarked) definedHandles.forEach(registry::markUninstalled);
+      }
+
+      calls.release(this);
+
+      final ClientCallSink endSink = (issued ? sink : ClientCallInstrumentation.getSink());
+
+      if(endSink != null) endSink.callEnded(ui, operation, System.nanoTime() - startNanos, outcome(throwable), calls.inFlightCount);
+
+      if(issued) calls.drain();
+    }
+
+  }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.oliveryasuna.vaadin.commons.web;
+
+/**
+ * Protects cookie values, such as by signing or encrypting them.
+ * <p>
+ * Encoded values only contain characters that are valid in a cookie value without quoting.
+ * Implementations are thread-safe, and are meant to be shared by the whole application.
+ *
+ * @author Oliver Yasuna
+ * @see SignedCookieCodec
+ * @see EncryptedCookieCodec
+ * @since 3.0.0
+ */
+public interface CookieCodec {
+
+  // Methods
+  //--------------------------------------------------
+
+  /**
+   * Encodes the value of a cookie.
+   *
+   * @param name  The name of the cookie, which the encoded value is bound to.
+   * @param value The value.
+   *
+   * @return The encoded value.
+   */
+  String encode(String name, String value);
+
+  /**
+   * Decodes the value of a cookie.
+   *
+   * @param name         The name of the cookie.
+   * @param encodedValue The encoded value.
+   *
+   * @return The value, or {@code null}, if the encoded value is malformed, was tampered with, was encoded for another cookie, or was encoded with
+   *     an unknown key.
+   */
+  String decode(String name, String encodedValue);
+
+}
@@ -0,0 +1,283 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.oliveryasuna.vaadin.commons.web;
+
+import com.oliveryasuna.commons.language.condition.Arguments;
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.server.VaadinRequest;
+import com.vaadin.flow.server.VaadinResponse;
+
+import javax.servlet.http.Cookie;
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A server-side mirror of the cookies visible to {@code document.cookie}, scoped to a {@link UI}.
+ * <p>
+ * Once installed with {@link #install(UI, VaadinRequest)}, {@link Cookies#get(UI, String)} and {@link Cookies#getAll(UI)} are answered from the
+ * jar, without a round trip.
+ * The jar is seeded from the cookies of a request, and is updated by {@link Cookies#set(UI, String)} and
+ * {@link Cookies#setInResponse(VaadinResponse, Cookie)}.
+ * Install it while handling the request that creates the {@link UI}, such as from a {@link com.vaadin.flow.server.UIInitListener}:
+ * <pre>{@code
+ * event.getSource().addUIInitListener(uiInitEvent -> CookieJar.install(uiInitEvent.getUI()));
+ * }</pre>
+ * <p>
+ * The jar does not track paths, domains or expiry, so it mirrors the cookies of the page the {@link UI} was loaded from.
+ * A request does not tell which of its cookies are HttpOnly, so HttpOnly cookies must be excluded from seeding by name, with
+ * {@link #install(UI, VaadinRequest, Set)}; otherwise they are readable from the jar, though not from {@code document.cookie}.
+ * The session cookie, {@value #SESSION_COOKIE_NAME}, is excluded by default.
+ * Cookies changed by client-side code are not observed.
+ * Use {@link #refresh()} to replace the contents of the jar with {@code document.cookie} in such cases.
+ * <p>
+ * Like the {@link UI} itself, instances are not thread-safe and must only be used while holding the session lock.
+ *
+ * @author Oliver Yasuna
+ * @since 3.0.0
+ */
+public final class CookieJar implements Serializable {
+
+  // Static fields
+  //--------------------------------------------------
+
+  /**
+   * The default name of the servlet session cookie, which is HttpOnly.
+   */
+  public static final String SESSION_COOKIE_NAME = "JSESSIONID";
+
+  /**
+   * The names of the cookies that are not seeded by default: {@value #SESSION_COOKIE_NAME}.
+   */
+  public static final Set<String> DEFAULT_EXCLUDED_NAMES = Set.of(SESSION_COOKIE_NAME);
+
+  private static final String DATA_KEY = CookieJar.class.getName();
+
+  // Static utility methods
+  //--------------------------------------------------
+
+  /**
+   * Installs a jar in a {@link UI}, seeded from the cookies of a request.
+   * <p>
+   * If a jar is already installed, it is returned unchanged.
+   *
+   * @param ui            The {@link UI} instance.
+   * @param request       The request.
+   * @param excludedNames The names of cookies that are not seeded, such as those of HttpOnly cookies.
+   *
+   * @return The installed jar.
+   */
+  public static CookieJar install(final UI ui, final VaadinRequest request, final Set<String> excludedNames) {
+    Arguments.requireNotNull(ui);
+    Arguments.requireNotNull(request);
+    Arguments.requireNotNull(excludedNames);
+
+    final CookieJar existing = find(ui);
+
+    if(existing != null) return existing;
+
+    final CookieJar jar = new CookieJar(ui);
+
+    for(final Cookie cookie : RequestCookieIndex.of(request).getCookies()) {
+      if(excludedNames.contains(cookie.getName())) continue;
+
+      jar.cookies.putIfAbsent(cookie.getName(), CookieParser.decodeValue(cookie.getValue() != null ? cookie.getValue() : ""));
+    }
+
+    ComponentUtil.setData(ui, DATA_KEY, jar);
+
+    return jar;
+  }
+
+  /**
+   * Calls {@link #install(UI, VaadinRequest, Set)} with the specific last argument, {@link #DEFAULT_EXCLUDED_NAMES}.
+   */
+  public static CookieJar install(final UI ui, final VaadinRequest request) {
+    return install(ui, request, DEFAULT_EXCLUDED_NAMES);
+  }
+
+  /**
+   * Calls {@link #install(UI, VaadinRequest)} with the specific last argument, {@code VaadinRequest.getCurrent()}.
+   */
+  public static CookieJar install(final UI ui) {
+    return install(ui, VaadinRequest.getCurrent());
+  }
+
+  /**
+   * Uninstalls the jar of a {@link UI}, if one is installed.
+   *
+   * @param ui The {@link UI} instance.
+   */
+  public static void uninstall(final UI ui) {
+    Arguments.requireNotNull(ui);
+
+    ComponentUtil.setData(ui, DATA_KEY, null);
+  }
+
+  /**
+   * Finds the jar installed in a {@link UI}.
+   *
+   * @param ui The {@link UI} instance.
+   *
+   * @return The jar, or {@code null}, if none is installed.
+   */
+  public static CookieJar find(final UI ui) {
+    Arguments.requireNotNull(ui);
+
+    return (CookieJar)ComponentUtil.getData(ui, DATA_KEY);
+  }
+
+  // Constructors
+  //--------------------------------------------------
+
+  private CookieJar(final UI ui) {
+    super();
+
+    this.ui = ui;
+  }
+
+  // Fields
+  //--------------------------------------------------
+
+  private final UI ui;
+
+  /**
+   * Decoded values, by name.
+   */
+  private final Map<String, String> cookies = new LinkedHashMap<>();
+
+  // Methods
+  //--------------------------------------------------
+
+  /**
+   * Gets the value of a cookie.
+   *
+   * @param name The name of the cookie.
+   *
+   * @return The decoded value, or {@code null}, if the cookie is not in the jar.
+   */
+  public String get(final String name) {
+    Arguments.requireNotNull(name);
+
+    return cookies.get(name);
+  }
+
+  /**
+   * Gets all cookies.
+   *
+   * @return An unmodifiable copy of the decoded values, by name.
+   */
+  public Map<String, String> getAll() {
+    return Collections.unmodifiableMap(new LinkedHashMap<>(cookies));
+  }
+
+  /**
+   * Replaces the contents of the jar with {@code document.cookie}.
+   *
+   * @return A {@link CompletableFuture} which completes when the jar has been refreshed.
+   */
+  public CompletableFuture<Void> refresh() {
+    CookieWriteBuffer.flushNow(ui);
+
+    final CompletableFuture<String> result = ClientCalls.execute(ui, "Cookies.refresh", String.class, "return document.cookie;");
+
+    return ClientCalls.propagateCancellation(result, result
+        .thenAccept(documentCookies -> {
+          cookies.clear();
+          cookies.putAll(CookieParser.parse(documentCookies));
+        }));
+  }
+
+  // Package-private methods, used by Cookies.
+  //
+
+  /**
+   * Records a cookie set through {@code document.cookie}.
+   */
+  void set(final String cookie) {
+    final int semicolon = cookie.indexOf(';');
+    final String pair = (semicolon >= 0 ? cookie.substring(0, semicolon) : cookie);
+    final Map<String, String> parsed = CookieParser.parse(pair);
+
+    if(parsed.isEmpty()) return;
+
+    final Map.Entry<String, String> entry = parsed.entrySet().iterator().next();
+
+    if(semicolon >= 0 && isExpired(cookie.substring(semicolon + 1))) {
+      cookies.remove(entry.getKey());
+    } else {
+      cookies.put(entry.getKey(), entry.getValue());
+    }
+  }
+
+  /**
+   * Records a cookie set in a response.
+   */
+  void set(final Cookie cookie) {
+    // HttpOnly cookies are not visible to document.cookie.
+    if(cookie.getMaxAge() == 0 || cookie.isHttpOnly()) {
+      cookies.remove(cookie.getName());
+    } else {
+      cookies.put(cookie.getName(), CookieParser.decodeValue(cookie.getValue() != null ? cookie.getValue() : ""));
+    }
+  }
+
+  private static boolean isExpired(final String attributes) {
+    Long maxAge = null;
+    boolean expired = false;
+
+    for(final String attribute : attributes.split(";")) {
+      final int equals = attribute.indexOf('=');
+
+      if(equals < 0) continue;
+
+      final String name = attribute.substring(0, equals).trim().toLowerCase(Locale.ROOT);
+      final String value = attribute.substring(equals + 1).trim();
+
+      try {
+        if(name.equals("max-age")) {
+          maxAge = Long.parseLong(value);
+        } else if(name.equals("expires")) {
+          expired = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).isBefore(ZonedDateTime.now());
+        }
+      } catch(final NumberFormatException | DateTimeParseException e) {
+        // Malformed attributes are ignored, like by browsers.
+      }
+    }
+
+    // Max-Age takes precedence over Expires.
+    return (maxAge != null ? maxAge <= 0L : expired);
+  }
+
+  // Getters
+  //--------------------------------------------------
+
+  public UI getUi() {
+    return ui;
+  }
+
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.oliveryasuna.vaadin.commons.web;
+
+import com.oliveryasuna.commons.language.exception.UnsupportedInstantiationException;
+import com.oliveryasuna.commons.language.marker.Utility;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Parses cookie strings, as returned by {@code document.cookie} or sent in a {@code Cookie} header.
+ * <p>
+ * Pairs are separated by {@code ;} and optional whitespace.
+ * A value may be enclosed in double quotes, which are removed, and is percent-decoded as UTF-8.
+ * Malformed escapes are kept as-is.
+ * A pair without {@code =} has an empty name, as in browsers.
+ * <p>
+ * Strings are scanned once, by index, and substrings are only allocated for returned names and values.
+ *
+ * @author Oliver Yasuna
+ * @since 3.0.0
+ */
+@Utility
+final class CookieParser {
+
+  // Static utility methods
+  //--------------------------------------------------
+
+  /**
+   * Parses all pairs.
+   * If a name occurs more than once, the first value is kept, as browsers list the cookie with the most specific path first.
+   *
+   * @return An unmodifiable map of names to values, in order of appearance.
+   */
+  static Map<String, String> parse(final String cookies) {
+    if(cookies == null || cookies.isEmpty()) return Collections.emptyMap();
+
+    final Map<String, String> result = new LinkedHashMap<>();
+    final int length = cookies.length();
+    int start = 0;
+
+    while(start < length) {
+      final int end = pairEnd(cookies, start, length);
+      final int equals = indexOfEquals(cookies, start, end);
+
+      if(equals >= 0) {
+        result.putIfAbsent(trimmed(cookies, start, equals), value(cookies, equals + 1, end));
+      } else if(!isBlank(cookies, start, end)) {
+        result.putIfAbsent("", value(cookies, start, end));
+      }
+
+      start = end + 1;
+    }
+
+    return Collections.unmodifiableMap(result);
+  }
+
+  /**
+   * Finds the value of the first pair with a name, without parsing other values.
+   *
+   * @return The value, or {@code null}, if no pair has the name.
+   */
+  static String find(final String cookies, final String name) {
+    if(cookies == null || cookies.isEmpty()) return null;
+
+    final int length = cookies.length();
+    int start = 0;
+
+    while(start < length) {
+      final int end = pairEnd(cookies, start, length);
+      final int equals = indexOfEquals(cookies, start, end);
+
+      if(equals >= 0) {
+        final int nameStart = skipWhitespace(cookies, start, equals);
+        final int nameEnd = skipTrailingWhitespace(cookies, nameStart, equals);
+
+        if(nameEnd - nameStart == name.length() && cookies.regionMatches(nameStart, name, 0, name.length())) return value(cookies, equals + 1, end);
+      } else if(name.isEmpty() && !isBlank(cookies, start, end)) {
+        return value(cookies, start, end);
+      }
+
+      start = end + 1;
+    }
+
+    return null;
+  }
+
+  /**
+   * Decodes a single value, removing enclosing double quotes and percent-decoding it.
+   */
+  static String decodeValue(final String value) {
+    return value(value, 0, value.length());
+  }
+
+  private static int pairEnd(final String cookies, final int start, final int length) {
+    final int semicolon = cookies.indexOf(';', start);
+
+    return (semicolon >= 0 ? semicolon : length);
+  }
+
+  private static int indexOfEquals(final String cookies, final int start, final int end) {
+    for(int i = start; i < end; i++) {
+      if(cookies.charAt(i) == '=') return i;
+    }
+
+    return -1;
+  }
+
+  private static boolean isWhitespace(final char c) {
+    return (c == ' ' || c == '\t');
+  }
+
+  private static boolean isBlank(final String cookies, final int start, final int end) {
+    return (skipWhitespace(cookies, start, end) == end);
+  }
+
+  private static int skipWhitespace(final String cookies, int start, final int end) {
+    while(start < end && isWhitespace(cookies.charAt(start))) start++;
+
+    return start;
+  }
+
+  private static int skipTrailingWhitespace(final String cookies, final int start, int end) {
+    while(end > start && isWhitespace(cookies.charAt(end - 1))) end--;
+
+    return end;
+  }
+
+  private static String trimmed(final String cookies, final int start, final int end) {
+    final int trimmedStart = skipWhitespace(cookies, start, end);
+
+    return cookies.substring(trimmedStart, skipTrailingWhitespace(cookies, trimmedStart, end));
+  }
+
+  private static String value(final String cookies, final int start, final int end) {
+    int valueStart = skipWhitespace(cookies, start, end);
+    int valueEnd = skipTrailingWhitespace(cookies, valueStart, end);
+
+    if(valueEnd - valueStart >= 2 && cookies.charAt(valueStart) == '"' && cookies.charAt(valueEnd - 1) == '"') {
+      valueStart++;
+      valueEnd--;
+    }
+
+    return percentDecode(cookies, valueStart, valueEnd);
+  }
+
+  private static String percentDecode(final String string, final int start, final int end) {
+    final int firstPercent = string.indexOf('%', start);
+
+    if(firstPercent < 0 || firstPercent >= end) return string.substring(start, end);
+
+    final StringBuilder result = new StringBuilder(end - start);
+    byte[] bytes = null;
+    int i = firstPercent;
+
+    result.append(string, start, firstPercent);
+
+    while(i < end) {
+      final char c = string.charAt(i);
+
+      if(c != '%' || !isEscape(string, i, end)) {
+        result.append(c);
+        i++;
+
+        continue;
+      }
+
+      // Decode a run of escapes together, as a character may span several bytes.
+      if(bytes == null) bytes = new byte[(end - i) / 3];
+
+      int byteCount = 0;
+
+      while(i < end && string.charAt(i) == '%' && isEscape(string, i, end)) {
+        bytes[byteCount++] = (byte)((Character.digit(string.charAt(i + 1), 16) << 4) | Character.digit(string.charAt(i + 2), 16));
+        i += 3;
+      }
+
+      result.append(new String(bytes, 0, byteCount, StandardCharsets.UTF_8));
+    }
+
+    return result.toString();
+  }
+
+  private static boolean isEscape(final String string, final int index, final int end) {
+    return (index + 2 < end && Character.digit(string.charAt(index + 1), 16) >= 0 && Character.digit(string.charAt(index + 2), 16) >= 0);
+  }
+
+  // Constructors
+  //--------------------------------------------------
+
+  private CookieParser() {
+    super();
+
+    throw new UnsupportedInstantiationException();
+  }
+
+}
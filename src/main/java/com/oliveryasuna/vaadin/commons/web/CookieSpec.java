@@ -0,0 +1,172 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.oliveryasuna.vaadin.commons.web;
+
+import com.oliveryasuna.commons.language.condition.Arguments;
+import com.oliveryasuna.commons.language.marker.Immutable;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A cookie to set with {@link Cookies#setAll(com.vaadin.flow.component.UI, java.util.Collection)}.
+ *
+ * @author Oliver Yasuna
+ * @since 3.0.0
+ */
+@Immutable
+public final class CookieSpec implements Serializable {
+
+  // Static utility methods
+  //--------------------------------------------------
+
+  /**
+   * Creates a new cookie specification, with the attributes of a template.
+   *
+   * @param name     The name of the cookie.
+   * @param value    The value of the cookie, which is percent-encoded where needed.
+   * @param template The attributes of the cookie.
+   *
+   * @return The cookie specification.
+   *
+   * @throws IllegalArgumentException If the template is HttpOnly, as browsers ignore such cookies when set from JavaScript.
+   */
+  public static CookieSpec withTemplate(final String name, final String value, final CookieTemplate template) {
+    Arguments.requireNotNull(name);
+    Arguments.requireNotNull(value);
+    Arguments.requireNotNull(template);
+
+    if(template.isHttpOnly()) throw new IllegalArgumentException("HttpOnly cookies cannot be set from the client: " + name);
+
+    return new CookieSpec(name, value, Collections.emptyMap(), template);
+  }
+
+  // Constructors
+  //--------------------------------------------------
+
+  /**
+   * Creates a new cookie specification.
+   *
+   * @param name       The name of the cookie.
+   * @param value      The value of the cookie.
+   * @param attributes The attributes of the cookie, or {@code null}, if it has none.
+   */
+  public CookieSpec(final String name, final String value, final Map<String, String> attributes) {
+    super();
+
+    Arguments.requireNotNull(name);
+    Arguments.requireNotNull(value);
+
+    this.name = name;
+    this.value = value;
+    this.attributes = (attributes != null && !attributes.isEmpty()
+        ? Collections.unmodifiableMap(new LinkedHashMap<>(attributes))
+        : Collections.emptyMap());
+    this.template = null;
+  }
+
+  private CookieSpec(final String name, final String value, final Map<String, String> attributes, final CookieTemplate template) {
+    super();
+
+    this.name = name;
+    this.value = value;
+    this.attributes = attributes;
+    this.template = template;
+  }
+
+  /**
+   * Calls {@link #CookieSpec(String, String, Map)} with the specific last argument, {@code null}.
+   */
+  public CookieSpec(final String name, final String value) {
+    this(name, value, null);
+  }
+
+  // Fields
+  //--------------------------------------------------
+
+  private final String name;
+
+  private final String value;
+
+  private final Map<String, String> attributes;
+
+  private final CookieTemplate template;
+
+  // Methods
+  //--------------------------------------------------
+
+  /**
+   * Gets the identity of the cookie in the browser, made of its name, path and domain.
+   * Setting a cookie replaces the cookie with the same identity.
+   */
+  String getIdentity() {
+    if(template != null) return (name + ';' + Objects.toString(template.getPath(), "") + ';' + Objects.toString(template.getDomain(), ""));
+
+    return (name + ';' + getAttribute("path") + ';' + getAttribute("domain"));
+  }
+
+  private String getAttribute(final String attributeName) {
+    for(final Map.Entry<String, String> attribute : attributes.entrySet()) {
+      if(attribute.getKey().toLowerCase(Locale.ROOT).equals(attributeName)) return attribute.getValue();
+    }
+
+    return "";
+  }
+
+  /**
+   * Gets the string to assign to {@code document.cookie}.
+   *
+   * @return The cookie string.
+   */
+  public String toCookieString() {
+    if(template != null) return template.toCookieString(name, value);
+
+    return Cookies.toCookieString(name, value, attributes);
+  }
+
+  // Getters
+  //--------------------------------------------------
+
+  public String getName() {
+    return name;
+  }
+
+  public String getValue() {
+    return value;
+  }
+
+  /**
+   * @return An unmodifiable map of attributes, which is empty if the specification has a template.
+   */
+  public Map<String, String> getAttributes() {
+    return attributes;
+  }
+
+  /**
+   * @return The template, or {@code null}, if the specification has a map of attributes.
+   */
+  public CookieTemplate getTemplate() {
+    return template;
+  }
+
+}
@@ -0,0 +1,332 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.oliveryasuna.vaadin.commons.web;
+
+import com.oliveryasuna.commons.language.condition.Arguments;
+import com.oliveryasuna.commons.language.marker.Immutable;
+
+import javax.servlet.http.Cookie;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The attributes of a cookie, serialized once according to RFC 6265 and reused for every cookie set with the template.
+ * <p>
+ * Templates are immutable; each {@code with} method returns a new template.
+ * The same template produces the string assigned to {@code document.cookie}, the {@code Set-Cookie} header and the {@link Cookie} of a response.
+ * Values are percent-encoded as UTF-8 where they contain characters that are not allowed in a cookie value, and {@link Cookies} decodes them.
+ *
+ * @author Oliver Yasuna
+ * @since 3.0.0
+ */
+@Immutable
+public final class CookieTemplate implements Serializable {
+
+  // Static fields
+  //--------------------------------------------------
+
+  /**
+   * A template without attributes, i.e., a session cookie for the current path.
+   */
+  public static final CookieTemplate DEFAULT = new CookieTemplate(null, null, null, null, false, false);
+
+  private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+  // Static utility methods
+  //--------------------------------------------------
+
+  /**
+   * Percent-encodes a value where it contains characters that are not allowed in a cookie value.
+   */
+  static String encodeValue(final String value) {
+    int i = 0;
+
+    while(i < value.length() && isCookieOctet(value.charAt(i))) i++;
+
+    if(i == value.length()) return value;
+
+    final StringBuilder encoded = new StringBuilder(value.length() + 16);
+
+    encoded.append(value, 0, i);
+
+    for(final byte b : value.substring(i).getBytes(StandardCharsets.UTF_8)) {
+      if(b >= 0 && isCookieOctet((char)b)) {
+        encoded.append((char)b);
+      } else {
+        encoded.append('%').append(HEX_DIGITS[(b >> 4) & 0xF]).append(HEX_DIGITS[b & 0xF]);
+      }
+    }
+
+    return encoded.toString();
+  }
+
+  /**
+   * Gets whether a character is a {@code cookie-octet} of RFC 6265, other than {@code %}, which is reserved for escapes.
+   */
+  private static boolean isCookieOctet(final char c) {
+    return (c == 0x21 || (c >= 0x23 && c <= 0x2B && c != 0x25) || (c >= 0x2D && c <= 0x3A) || (c >= 0x3C && c <= 0x5B) || (c >= 0x5D && c <= 0x7E));
+  }
+
+  // Constructors
+  //--------------------------------------------------
+
+  private CookieTemplate(final String path, final String domain, final Integer maxAge, final SameSite sameSite, final boolean secure,
+      final boolean httpOnly) {
+    super();
+
+    this.path = path;
+    this.domain = domain;
+    this.maxAge = maxAge;
+    this.sameSite = sameSite;
+    this.secure = secure;
+    this.httpOnly = httpOnly;
+
+    final StringBuilder suffix = new StringBuilder();
+
+    if(path != null) suffix.append("; Path=").append(path);
+    if(domain != null) suffix.append("; Domain=").append(domain);
+    if(maxAge != null) suffix.append("; Max-Age=").append(maxAge);
+    if(sameSite != null) suffix.append("; SameSite=").append(sameSite.getAttributeValue());
+    if(secure) suffix.append("; Secure");
+
+    this.clientSuffix = suffix.toString();
+
+    if(httpOnly) suffix.append("; HttpOnly");
+
+    this.headerSuffix = suffix.toString();
+  }
+
+  // Fields
+  //--------------------------------------------------
+
+  private final String path;
+
+  private final String domain;
+
+  private final Integer maxAge;
+
+  private final SameSite sameSite;
+
+  private final boolean secure;
+
+  private final boolean httpOnly;
+
+  /**
+   * The serialized attributes for {@code document.cookie}, which ignores cookies with the {@code HttpOnly} attribute.
+   */
+  private final String clientSuffix;
+
+  /**
+   * The serialized attributes for the {@code Set-Cookie} header.
+   */
+  private final String headerSuffix;
+
+  // Methods
+  //--------------------------------------------------
+
+  /**
+   * Gets the string to assign to {@code document.cookie}.
+   * <p>
+   * The {@code HttpOnly} attribute is omitted, as browsers ignore cookies with it that are set from JavaScript; {@link Cookies} and
+   * {@link CookieSpec} reject HttpOnly templates for this reason.
+   *
+   * @param name  The name of the cookie.
+   * @param value The value of the cookie.
+   *
+   * @return The cookie string.
+   */
+  public String toCookieString(final String name, final String value) {
+    Arguments.requireNotNull(name);
+    Arguments.requireNotNull(value);
+
+    return (name + '=' + encodeValue(value) + clientSuffix);
+  }
+
+  /**
+   * Gets the value of a {@code Set-Cookie} header.
+   *
+   * @param name  The name of the cookie.
+   * @param value The value of the cookie.
+   *
+   * @return The header value.
+   */
+  public String toSetCookieHeader(final String name, final String value) {
+    Arguments.requireNotNull(name);
+    Arguments.requireNotNull(value);
+
+    return (name + '=' + encodeValue(value) + headerSuffix);
+  }
+
+  /**
+   * Creates a {@link Cookie}.
+   * <p>
+   * {@link Cookie} cannot represent the {@code SameSite} attribute, so it is lost.
+   * Use {@link Cookies#setInResponse(com.vaadin.flow.server.VaadinResponse, String, String, CookieTemplate)} to keep it.
+   *
+   * @param name  The name of the cookie.
+   * @param value The value of the cookie.
+   *
+   * @return The cookie.
+   */
+  public Cookie toCookie(final String name, final String value) {
+    Arguments.requireNotNull(name);
+    Arguments.requireNotNull(value);
+
+    final Cookie cookie = new Cookie(name, encodeValue(value));
+
+    if(path != null) cookie.setPath(path);
+    if(domain != null) cookie.setDomain(domain);
+    if(maxAge != null) cookie.setMaxAge(maxAge);
+    cookie.setSecure(secure);
+    cookie.setHttpOnly(httpOnly);
+
+    return cookie;
+  }
+
+  /**
+   * @param path The path, or {@code null}, to default to the path of the page.
+   *
+   * @return A template with the {@code Path} attribute.
+   */
+  public CookieTemplate withPath(final String path) {
+    return new CookieTemplate(path, domain, maxAge, sameSite, secure, httpOnly);
+  }
+
+  /**
+   * @param domain The domain, or {@code null}, to default to the host of the page, excluding subdomains.
+   *
+   * @return A template with the {@code Domain} attribute.
+   */
+  public CookieTemplate withDomain(final String domain) {
+    return new CookieTemplate(path, domain, maxAge, sameSite, secure, httpOnly);
+  }
+
+  /**
+   * @param maxAge The lifetime, in seconds, {@code 0}, to delete the cookie, or {@code null}, for a session cookie.
+   *
+   * @return A template with the {@code Max-Age} attribute.
+   */
+  public CookieTemplate withMaxAge(final Integer maxAge) {
+    return new CookieTemplate(path, domain, maxAge, sameSite, secure, httpOnly);
+  }
+
+  /**
+   * @param sameSite The same-site policy, or {@code null}, for the browser default.
+   *
+   * @return A template with the {@code SameSite} attribute.
+   */
+  public CookieTemplate withSameSite(final SameSite sameSite) {
+    return new CookieTemplate(path, domain, maxAge, sameSite, secure, httpOnly);
+  }
+
+  /**
+   * @param secure Whether the cookie is only sent over HTTPS.
+   *
+   * @return A template with or without the {@code Secure} flag.
+   */
+  public CookieTemplate withSecure(final boolean secure) {
+    return new CookieTemplate(path, domain, maxAge, sameSite, secure, httpOnly);
+  }
+
+  /**
+   * @param httpOnly Whether the cookie is hidden from JavaScript.
+   *
+   * @return A template with or without the {@code HttpOnly} flag.
+   */
+  public CookieTemplate withHttpOnly(final boolean httpOnly) {
+    return new CookieTemplate(path, domain, maxAge, sameSite, secure, httpOnly);
+  }
+
+  // Getters
+  //--------------------------------------------------
+
+  public String getPath() {
+    return path;
+  }
+
+  public String getDomain() {
+    return domain;
+  }
+
+  public Integer getMaxAge() {
+    return maxAge;
+  }
+
+  public SameSite getSameSite() {
+    return sameSite;
+  }
+
+  public boolean isSecure() {
+    return secure;
+  }
+
+  public boolean isHttpOnly() {
+    return httpOnly;
+  }
+
+  // Nested
+  //--------------------------------------------------
+
+  /**
+   * Values of the {@code SameSite} attribute.
+   *
+   * @author Oliver Yasuna
+   */
+  public enum SameSite {
+
+    // Values
+    //--------------------------------------------------
+
+    /**
+     * Only sent with same-site requests.
+     */
+    STRICT("Strict"),
+
+    /**
+     * Also sent with top-level cross-site navigations.
+     */
+    LAX("Lax"),
+
+    /**
+     * Sent with all requests. Requires the {@code Secure} flag.
+     */
+    NONE("None");
+
+    // Constructors
+    //--------------------------------------------------
+
+    SameSite(final String attributeValue) {
+      this.attributeValue = attributeValue;
+    }
+
+    // Fields
+    //--------------------------------------------------
+
+    private final String attributeValue;
+
+    // Getters
+    //--------------------------------------------------
+
+    public String getAttributeValue() {
+      return attributeValue;
+    }
+
+  }
+
+}
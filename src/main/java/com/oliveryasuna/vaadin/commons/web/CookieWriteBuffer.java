@@ -0,0 +1,166 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.oliveryasuna.vaadin.commons.web;
+
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.internal.StateTree;
+import elemental.json.Json;
+import elemental.json.JsonArray;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Buffers cookie writes for a {@link UI} until the server response is written.
+ * <p>
+ * Only the last write per cookie identity (name, path and domain) is kept.
+ * All buffered writes are flushed as a single script from {@link UI#beforeClientResponse(com.vaadin.flow.component.HasElement,
+ * com.vaadin.flow.function.SerializableConsumer)}.
+ * They are flushed earlier, with {@link #flushNow(UI)}, when {@code document.cookie} is about to be read or written directly, so that cookies are
+ * accessed in program order.
+ *
+ * @author Oliver Yasuna
+ * @since 3.0.0
+ */
+final class CookieWriteBuffer implements Serializable {
+
+  // Static fields
+  //--------------------------------------------------
+
+  private static final String DATA_KEY = CookieWriteBuffer.class.getName();
+
+  // Static utility methods
+  //--------------------------------------------------
+
+  /**
+   * Gets the buffer of a {@link UI}, creating it if needed.
+   */
+  static CookieWriteBuffer get(final UI ui) {
+    CookieWriteBuffer buffer = (CookieWriteBuffer)ComponentUtil.getData(ui, DATA_KEY);
+
+    if(buffer == null) {
+      buffer = new CookieWriteBuffer(ui);
+
+      ComponentUtil.setData(ui, DATA_KEY, buffer);
+    }
+
+    return buffer;
+  }
+
+  /**
+   * Flushes the buffered writes of a {@link UI} now, if any, so that a script sent directly afterwards runs after them.
+   */
+  static void flushNow(final UI ui) {
+    final CookieWriteBuffer buffer = (CookieWriteBuffer)ComponentUtil.getData(ui, DATA_KEY);
+
+    if(buffer != null) buffer.flushNow();
+  }
+
+  // Constructors
+  //--------------------------------------------------
+
+  private CookieWriteBuffer(final UI ui) {
+    super();
+
+    this.ui = ui;
+  }
+
+  // Fields
+  //--------------------------------------------------
+
+  private final UI ui;
+
+  /**
+   * Pending cookie strings, by cookie identity.
+   */
+  private final Map<String, String> pendingCookies = new LinkedHashMap<>();
+
+  /**
+   * Futures completed when the next flush is acknowledged.
+   */
+  private final List<CompletableFuture<Void>> pendingFutures = new ArrayList<>();
+
+  private StateTree.ExecutionRegistration flushRegistration;
+
+  // Methods
+  //--------------------------------------------------
+
+  CompletableFuture<Void> setAll(final Iterable<CookieSpec> cookies) {
+    final CompletableFuture<Void> future = new CompletableFuture<>();
+
+    for(final CookieSpec cookie : cookies) {
+      final String identity = cookie.getIdentity();
+
+      // Re-inserted, so that the cookie is written in order of its last write.
+      pendingCookies.remove(identity);
+      pendingCookies.put(identity, cookie.toCookieString());
+    }
+
+    pendingFutures.add(future);
+
+    if(flushRegistration == null) flushRegistration = ui.beforeClientResponse(ui, context -> flush());
+
+    return future;
+  }
+
+  private void flushNow() {
+    if(flushRegistration == null) return;
+
+    flushRegistration.remove();
+
+    flush();
+  }
+
+  private void flush() {
+    flushRegistration = null;
+
+    final List<CompletableFuture<Void>> futures = new ArrayList<>(pendingFutures);
+    final JsonArray cookies = Json.createArray();
+
+    for(final String cookie : pendingCookies.values()) {
+      cookies.set(cookies.length(), cookie);
+    }
+
+    pendingFutures.clear();
+    pendingCookies.clear();
+
+    if(cookies.length() == 0) {
+      futures.forEach(future -> future.complete(null));
+
+      return;
+    }
+
+    ClientCalls.execute(ui, "Cookies.setAll", Void.class, "for(const c of $0){document.cookie=c;}", cookies)
+        .whenComplete((result, throwable) -> {
+          for(final CompletableFuture<Void> future : futures) {
+            if(throwable != null) {
+              future.completeExceptionally(throwable);
+            } else {
+              future.complete(null);
+            }
+          }
+        });
+  }
+
+}
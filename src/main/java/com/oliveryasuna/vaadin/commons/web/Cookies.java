@@ -18,7 +18,6 @@
 
 package com.oliveryasuna.vaadin.commons.web;
 
-import com.oliveryasuna.commons.language.StreamUtils;
 import com.oliveryasuna.commons.language.condition.Arguments;
 import com.oliveryasuna.commons.language.exception.UnsupportedInstantiationException;
 import com.oliveryasuna.commons.language.marker.Utility;
@@ -26,9 +25,11 @@ import com.vaadin.flow.component.UI;
 import com.vaadin.flow.server.VaadinRequest;
 import com.vaadin.flow.server.VaadinResponse;
 import com.vaadin.flow.server.VaadinService;
+import com.vaadin.flow.server.VaadinServletResponse;
 
 import javax.servlet.http.Cookie;
-import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
@@ -46,23 +47,27 @@ public final class Cookies {
 
   /**
    * Gets all cookie key/value pairs.
+   * <p>
+   * Quoted values are unquoted, and values are percent-decoded.
+   * If a name occurs more than once, the first value is kept.
+   * If a {@link CookieJar} is installed, it answers without a round trip.
    *
    * @param ui The UI.
    *
-   * @return A {@link CompletableFuture} containing key/value pairs.
+   * @return A {@link CompletableFuture} containing an unmodifiable map of key/value pairs.
    */
   public static CompletableFuture<Map<String, String>> getAll(final UI ui) {
     Arguments.requireNotNull(ui);
 
-    return ui.getPage().executeJs("return document.cookie;")
-        .toCompletableFuture(String.class)
-        .thenApply(result -> Arrays.stream(result.split(";\\s*"))
-            .map(cookie -> {
-              final String[] parts = cookie.split("=");
+    final CookieJar jar = CookieJar.find(ui);
 
-              return Map.entry(parts[0], parts[1]);
-            })
-            .collect(StreamUtils.Collectors.toUnmodifiableMap()));
+    if(jar != null) return CompletableFuture.completedFuture(jar.getAll());
+
+    CookieWriteBuffer.flushNow(ui);
+
+    final CompletableFuture<String> result = ClientCalls.execute(ui, "Cookies.getAll", String.class, "return document.cookie;");
+
+    return ClientCalls.propagateCancellation(result, result.thenApply(CookieParser::parse));
   }
 
   /**
@@ -74,15 +79,19 @@ public final class Cookies {
 
   /**
    * Gets all cookies from a {@link VaadinRequest}.
+   * <p>
+   * Like {@link VaadinRequest#getCookies()}, each call returns a new array.
    *
    * @param request The request.
    *
-   * @return An array of {@link Cookie}s.
+   * @return An array of {@link Cookie}s, or {@code null}, if the request has none.
    */
   public static Cookie[] getAllFromRequest(final VaadinRequest request) {
     Arguments.requireNotNull(request);
 
-    return request.getCookies();
+    final Cookie[] cookies = RequestCookieIndex.of(request).getCookies();
+
+    return (cookies.length != 0 ? cookies.clone() : null);
   }
 
   /**
@@ -92,32 +101,54 @@ public final class Cookies {
     return getAllFromRequest(VaadinRequest.getCurrent());
   }
 
+  /**
+   * Gets all cookies with a name from a {@link VaadinRequest}.
+   * <p>
+   * Browsers send a cookie once for each path and domain under which it is set, most specific path first.
+   *
+   * @param request The request.
+   * @param name    The name of the cookies.
+   *
+   * @return An unmodifiable list of {@link Cookie}s, which is empty if none was found.
+   */
+  public static List<Cookie> getAllFromRequest(final VaadinRequest request, final String name) {
+    Arguments.requireNotNull(request);
+    Arguments.requireNotNull(name);
+
+    return RequestCookieIndex.of(request).getAll(name);
+  }
+
+  /**
+   * Calls {@link #getAllFromRequest(VaadinRequest, String)} with the specific first argument, {@code VaadinRequest.getCurrent()}.
+   */
+  public static List<Cookie> getAllFromRequest(final String name) {
+    return getAllFromRequest(VaadinRequest.getCurrent(), name);
+  }
+
   /**
    * Gets a cookie's value.
+   * <p>
+   * Quoted values are unquoted, and values are percent-decoded.
+   * If a {@link CookieJar} is installed, it answers without a round trip.
    *
    * @param ui   The UI.
    * @param name The name.
    *
-   * @return A {@link CompletableFuture} containing the value.
+   * @return A {@link CompletableFuture} containing the value, or {@code null}, if no cookie was found.
    */
   public static CompletableFuture<String> get(final UI ui, final String name) {
     Arguments.requireNotNull(ui);
     Arguments.requireNotNull(name);
 
-    return ui.getPage().executeJs("return document.cookie;")
-        .toCompletableFuture(String.class)
-        .thenApply(result -> {
-          final String[] cookies = result.split(";\\s*");
+    final CookieJar jar = CookieJar.find(ui);
 
-          for(final String cookie : cookies) {
-            final int indexOfEquals = cookie.indexOf('=');
-            final String cookieKey = cookie.substring(0, indexOfEquals);
+    if(jar != null) return CompletableFuture.completedFuture(jar.get(name));
 
-            if(name.equals(cookieKey)) return cookie.substring(indexOfEquals + 1);
-          }
+    CookieWriteBuffer.flushNow(ui);
 
-          return null;
-        });
+    final CompletableFuture<String> result = ClientCalls.execute(ui, "Cookies.get", String.class, "return document.cookie;");
+
+    return ClientCalls.propagateCancellation(result, result.thenApply(cookies -> CookieParser.find(cookies, name)));
   }
 
   /**
@@ -129,6 +160,8 @@ public final class Cookies {
 
   /**
    * Gets a cookie's value from a {@link VaadinRequest}.
+   * <p>
+   * If several cookies have the name, the first is returned.
    *
    * @param request The request.
    * @param name    The name of the cookie.
@@ -140,11 +173,7 @@ public final class Cookies {
     Arguments.requireNotNull(request);
     Arguments.requireNotNull(name);
 
-    for(final Cookie cookie : request.getCookies()) {
-      if(name.equals(cookie.getName())) return cookie;
-    }
-
-    return null;
+    return RequestCookieIndex.of(request).get(name);
   }
 
   /**
@@ -156,6 +185,9 @@ public final class Cookies {
 
   /**
    * Sets a cookie.
+   * <p>
+   * The cookie is sent immediately, after any cookies still buffered by {@link #setAll(UI, Collection)}, so cookies are written in program order.
+   * If a {@link CookieJar} is installed, it is updated.
    *
    * @param ui     The UI.
    * @param cookie The cookie.
@@ -166,8 +198,13 @@ public final class Cookies {
     Arguments.requireNotNull(ui);
     Arguments.requireNotNull(cookie);
 
-    return ui.getPage().executeJs("document.cookie = $0;", cookie)
-        .toCompletableFuture(Void.class);
+    final CookieJar jar = CookieJar.find(ui);
+
+    if(jar != null) jar.set(cookie);
+
+    CookieWriteBuffer.flushNow(ui);
+
+    return ClientCalls.execute(ui, "Cookies.set", Void.class, "document.cookie = $0;", cookie);
   }
 
   /**
@@ -192,17 +229,36 @@ public final class Cookies {
     Arguments.requireNotNull(name);
     Arguments.requireNotNull(value);
 
-    final StringBuilder cookie = new StringBuilder();
+    return set(ui, toCookieString(name, value, attributes));
+  }
 
-    cookie.append(name).append('=').append(value);
-    if(attributes != null) {
-      for(final Map.Entry<String, String> attribute : attributes.entrySet()) {
-        cookie.append("; ");
-        cookie.append(Arguments.requireNotNull(attribute.getKey())).append('=').append(Arguments.requireNotNull(attribute.getValue()));
-      }
-    }
+  /**
+   * Sets a cookie, with the attributes of a template.
+   *
+   * @param ui       The UI.
+   * @param name     The name of the cookie.
+   * @param value    The value of the cookie, which is percent-encoded where needed.
+   * @param template The attributes of the cookie.
+   *
+   * @return A {@link CompletableFuture} which can be used to determine completeness.
+   *
+   * @throws IllegalArgumentException If the template is HttpOnly, as browsers ignore such cookies when set from JavaScript. Use
+   *                                  {@link #setInResponse(VaadinResponse, String, String, CookieTemplate)} instead.
+   */
+  public static CompletableFuture<Void> setWithTemplate(final UI ui, final String name, final String value, final CookieTemplate template) {
+    Arguments.requireNotNull(ui);
+    Arguments.requireNotNull(template);
+
+    if(template.isHttpOnly()) throw new IllegalArgumentException("HttpOnly cookies cannot be set from the client: " + name);
 
-    return set(ui, cookie.toString());
+    return set(ui, template.toCookieString(name, value));
+  }
+
+  /**
+   * Calls {@link #setWithTemplate(UI, String, String, CookieTemplate)} with a specific first argument, {@code UI.getCurrent()}.
+   */
+  public static CompletableFuture<Void> setWithTemplate(final String name, final String value, final CookieTemplate template) {
+    return setWithTemplate(UI.getCurrent(), name, value, template);
   }
 
   /**
@@ -226,8 +282,44 @@ public final class Cookies {
     return set(UI.getCurrent(), name, value);
   }
 
+  /**
+   * Sets multiple cookies in a single round trip.
+   * <p>
+   * The cookies are sent as a single script when the server response is written, together with those of other calls in the same response.
+   * If a cookie with the same name, path and domain is set more than once before then, only the last value is sent.
+   * If a {@link CookieJar} is installed, it is updated immediately.
+   *
+   * @param ui      The UI.
+   * @param cookies The cookies.
+   *
+   * @return A {@link CompletableFuture} which completes when the cookies have been set by the client.
+   */
+  public static CompletableFuture<Void> setAll(final UI ui, final Collection<CookieSpec> cookies) {
+    Arguments.requireNotNull(ui);
+    Arguments.requireNotNull(cookies);
+
+    final CookieJar jar = CookieJar.find(ui);
+
+    for(final CookieSpec cookie : cookies) {
+      Arguments.requireNotNull(cookie);
+
+      if(jar != null) jar.set(cookie.toCookieString());
+    }
+
+    return CookieWriteBuffer.get(ui).setAll(cookies);
+  }
+
+  /**
+   * Calls {@link #setAll(UI, Collection)} with the specific first argument, {@code UI.getCurrent()}.
+   */
+  public static CompletableFuture<Void> setAll(final Collection<CookieSpec> cookies) {
+    return setAll(UI.getCurrent(), cookies);
+  }
+
   /**
    * Sets a cookie in a {@link VaadinResponse}.
+   * <p>
+   * If a {@link CookieJar} is installed in the current {@link UI}, it is updated.
    *
    * @param response The {@link VaadinResponse}.
    * @param cookie   The cookie.
@@ -237,6 +329,11 @@ public final class Cookies {
     Arguments.requireNotNull(cookie);
 
     response.addCookie(cookie);
+
+    final UI ui = UI.getCurrent();
+    final CookieJar jar = (ui != null ? CookieJar.find(ui) : null);
+
+    if(jar != null) jar.set(cookie);
   }
 
   /**
@@ -246,6 +343,72 @@ public final class Cookies {
     setInResponse(VaadinService.getCurrentResponse(), cookie);
   }
 
+  /**
+   * Sets a cookie in a {@link VaadinResponse}, with the attributes of a template.
+   * <p>
+   * As {@link Cookie} cannot represent the {@code SameSite} attribute, a cookie with it is written as a {@code Set-Cookie} header, if the response
+   * is a {@link VaadinServletResponse}.
+   * If a {@link CookieJar} is installed in the current {@link UI}, it is updated.
+   *
+   * @param response The {@link VaadinResponse}.
+   * @param name     The name of the cookie.
+   * @param value    The value of the cookie, which is percent-encoded where needed.
+   * @param template The attributes of the cookie.
+   */
+  public static void setInResponse(final VaadinResponse response, final String name, final String value, final CookieTemplate template) {
+    Arguments.requireNotNull(response);
+    Arguments.requireNotNull(template);
+
+    final Cookie cookie = template.toCookie(name, value);
+
+    if(template.getSameSite() != null && response instanceof VaadinServletResponse) {
+      ((VaadinServletResponse)response).getHttpServletResponse().addHeader("Set-Cookie", template.toSetCookieHeader(name, value));
+
+      final UI ui = UI.getCurrent();
+      final CookieJar jar = (ui != null ? CookieJar.find(ui) : null);
+
+      if(jar != null) jar.set(cookie);
+    } else {
+      setInResponse(response, cookie);
+    }
+  }
+
+  /**
+   * Calls {@link #setInResponse(VaadinResponse, String, String, CookieTemplate)} with a specific first argument,
+   * {@code VaadinService.getCurrentResponse()}.
+   */
+  public static void setInResponse(final String name, final String value, final CookieTemplate template) {
+    setInResponse(VaadinService.getCurrentResponse(), name, value, template);
+  }
+
+  // Helpers
+  //
+
+  static String toCookieString(final String name, final String value, final Map<String, String> attributes) {
+    final StringBuilder cookie = new StringBuilder();
+
+    cookie.append(name).append('=').append(value);
+    if(attributes != null) {
+      for(final Map.Entry<String, String> attribute : attributes.entrySet()) {
+        final String attributeName = Arguments.requireNotNull(attribute.getKey());
+        final String attributeValue = Arguments.requireNotNull(attribute.getValue());
+
+        if(isFlagAttribute(attributeName)) {
+          // Flags have no value; "false" omits them.
+          if(!attributeValue.equalsIgnoreCase("false")) cookie.append("; ").append(attributeName);
+        } else {
+          cookie.append("; ").append(attributeName).append('=').append(attributeValue);
+        }
+      }
+    }
+
+    return cookie.toString();
+  }
+
+  private static boolean isFlagAttribute(final String attributeName) {
+    return (attributeName.equalsIgnoreCase("Secure") || attributeName.equalsIgnoreCase("HttpOnly") || attributeName.equalsIgnoreCase("Partitioned"));
+  }
+
   // Constructors
   //--------------------------------------------------
 
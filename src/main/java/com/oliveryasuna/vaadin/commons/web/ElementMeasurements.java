@@ -0,0 +1,181 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.oliveryasuna.vaadin.commons.web;
+
+import com.oliveryasuna.commons.language.marker.Immutable;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Bounds and computed styles of elements, measured in one round trip by {@link JavaScript#measure(com.vaadin.flow.component.UI,
+ * java.util.Collection, boolean, List)}.
+ * <p>
+ * Measurements are stored in flat arrays, indexed by the position of the element in the measured collection.
+ * Elements that were not found in the browser, such as detached ones, are not measured: their bounds are {@code NaN}, and their styles
+ * {@code null}.
+ *
+ * @author Oliver Yasuna
+ * @since 3.0.0
+ */
+@Immutable
+public final class ElementMeasurements implements Serializable {
+
+  // Constructors
+  //--------------------------------------------------
+
+  ElementMeasurements(final int size, final double[] bounds, final List<String> styleProperties, final String[] styles) {
+    super();
+
+    this.size = size;
+    this.bounds = bounds;
+    this.styleProperties = styleProperties;
+    this.styles = styles;
+  }
+
+  // Fields
+  //--------------------------------------------------
+
+  private final int size;
+
+  /**
+   * {@code x}, {@code y}, {@code width} and {@code height} of each element, or empty, if bounds were not measured.
+   */
+  private final double[] bounds;
+
+  private final List<String> styleProperties;
+
+  /**
+   * The values of the style properties of each element.
+   */
+  private final String[] styles;
+
+  // Methods
+  //--------------------------------------------------
+
+  /**
+   * Gets whether an element was measured.
+   *
+   * @param index The index of the element.
+   *
+   * @return {@code true}, if the element was found in the browser; {@code false}, otherwise.
+   */
+  public boolean isMeasured(final int index) {
+    checkIndex(index);
+
+    if(bounds.length != 0) return !Double.isNaN(bounds[index * 4]);
+    if(!styleProperties.isEmpty()) return (styles[index * styleProperties.size()] != null);
+
+    return true;
+  }
+
+  /**
+   * Gets the left edge of an element, relative to the viewport, as returned by {@code getBoundingClientRect()}.
+   *
+   * @param index The index of the element.
+   *
+   * @return The position, in CSS pixels.
+   */
+  public double getX(final int index) {
+    return bound(index, 0);
+  }
+
+  /**
+   * Gets the top edge of an element, relative to the viewport, as returned by {@code getBoundingClientRect()}.
+   *
+   * @param index The index of the element.
+   *
+   * @return The position, in CSS pixels.
+   */
+  public double getY(final int index) {
+    return bound(index, 1);
+  }
+
+  /**
+   * Gets the width of an element, as returned by {@code getBoundingClientRect()}.
+   *
+   * @param index The index of the element.
+   *
+   * @return The width, in CSS pixels.
+   */
+  public double getWidth(final int index) {
+    return bound(index, 2);
+  }
+
+  /**
+   * Gets the height of an element, as returned by {@code getBoundingClientRect()}.
+   *
+   * @param index The index of the element.
+   *
+   * @return The height, in CSS pixels.
+   */
+  public double getHeight(final int index) {
+    return bound(index, 3);
+  }
+
+  /**
+   * Gets the computed value of a style property of an element.
+   *
+   * @param index    The index of the element.
+   * @param property The style property, which must have been measured.
+   *
+   * @return The value, as returned by {@code getComputedStyle().getPropertyValue()}.
+   */
+  public String getStyle(final int index, final String property) {
+    checkIndex(index);
+
+    final int propertyIndex = styleProperties.indexOf(property);
+
+    if(propertyIndex < 0) throw new IllegalArgumentException("Style property was not measured: " + property);
+
+    return styles[index * styleProperties.size() + propertyIndex];
+  }
+
+  private double bound(final int index, final int offset) {
+    checkIndex(index);
+
+    if(bounds.length == 0) throw new IllegalStateException("Bounds were not measured.");
+
+    return bounds[index * 4 + offset];
+  }
+
+  private void checkIndex(final int index) {
+    if(index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+  }
+
+  /**
+   * Gets the number of elements.
+   *
+   * @return The number of elements.
+   */
+  public int size() {
+    return size;
+  }
+
+  // Getters
+  //--------------------------------------------------
+
+  /**
+   * @return An unmodifiable list of the measured style properties.
+   */
+  public List<String> getStyleProperties() {
+    return styleProperties;
+  }
+
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.oliveryasuna.vaadin.commons.web;
+
+import com.oliveryasuna.commons.language.condition.Arguments;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.NoSuchPaddingException;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@link CookieCodec} that encrypts values with AES-GCM.
+ * <p>
+ * Values are neither readable nor changeable by the client.
+ * An encoded value has the form {@code keyId.data}, where the data is the Base64URL encoding of a random 96-bit IV followed by the ciphertext and
+ * the 128-bit authentication tag.
+ * The name of the cookie is authenticated as additional data, so a value cannot be moved to another cookie.
+ * <p>
+ * Keys are identified by IDs, so they can be rotated: values are encrypted with the current key, and decrypted with the key they were encrypted
+ * with.
+ * Each thread reuses one {@link Cipher}.
+ *
+ * @author Oliver Yasuna
+ * @since 3.0.0
+ */
+public final class EncryptedCookieCodec implements CookieCodec {
+
+  // Static fields
+  //--------------------------------------------------
+
+  private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+
+  private static final int IV_LENGTH = 12;
+
+  private static final int TAG_LENGTH_BITS = 128;
+
+  private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+  private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+  private static final SecureRandom RANDOM = new SecureRandom();
+
+  private static final ThreadLocal<Cipher> CIPHER = ThreadLocal.withInitial(() -> {
+    try {
+      return Cipher.getInstance(TRANSFORMATION);
+    } catch(final NoSuchAlgorithmException | NoSuchPaddingException e) {
+      throw new IllegalStateException(e);
+    }
+  });
+
+  // Static utility methods
+  //--------------------------------------------------
+
+  private static byte[] randomIv() {
+    final byte[] iv = new byte[IV_LENGTH];
+
+    RANDOM.nextBytes(iv);
+
+    return iv;
+  }
+
+  // Constructors
+  //--------------------------------------------------
+
+  /**
+   * Creates a new codec.
+   *
+   * @param keys         The AES keys, by ID, each of 16, 24 or 32 bytes. IDs may only contain {@code A-Z}, {@code a-z}, {@code 0-9}, {@code _} and
+   *                     {@code -}.
+   * @param currentKeyId The ID of the key to encrypt values with.
+   */
+  public EncryptedCookieCodec(final Map<String, byte[]> keys, final String currentKeyId) {
+    super();
+
+    SignedCookieCodec.requireValidKeyIds(keys, currentKeyId);
+
+    final Map<String, SecretKeySpec> secretKeys = new HashMap<>();
+
+    for(final Map.Entry<String, byte[]> key : keys.entrySet()) {
+      final int length = key.getValue().length;
+
+      if(length != 16 && length != 24 && length != 32) throw new IllegalArgumentException("AES keys must be 16, 24 or 32 bytes long: " + key.getKey());
+
+      secretKeys.put(key.getKey(), new SecretKeySpec(key.getValue().clone(), "AES"));
+    }
+
+    this.secretKeys = secretKeys;
+    this.currentKeyId = currentKeyId;
+  }
+
+  // Fields
+  //--------------------------------------------------
+
+  private final Map<String, SecretKeySpec> secretKeys;
+
+  private final String currentKeyId;
+
+  // Overrides
+  //--------------------------------------------------
+
+  // CookieCodec
+  //
+
+  @Override
+  public String encode(final String name, final String value) {
+    Arguments.requireNotNull(name);
+    Arguments.requireNotNull(value);
+
+    final byte[] plaintext = value.getBytes(StandardCharsets.UTF_8);
+    final Cipher cipher = CIPHER.get();
+
+    try {
+      cipher.init(Cipher.ENCRYPT_MODE, secretKeys.get(currentKeyId), new GCMParameterSpec(TAG_LENGTH_BITS, randomIv()));
+      cipher.updateAAD(name.getBytes(StandardCharsets.UTF_8));
+
+      final byte[] data = new byte[IV_LENGTH + cipher.getOutputSize(plaintext.length)];
+
+      System.arraycopy(cipher.getIV(), 0, data, 0, IV_LENGTH);
+      cipher.doFinal(plaintext, 0, plaintext.length, data, IV_LENGTH);
+
+      return (currentKeyId + '.' + ENCODER.encodeToString(data));
+    } catch(final GeneralSecurityException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @Override
+  public String decode(final String name, final String encodedValue) {
+    Arguments.requireNotNull(name);
+
+    if(encodedValue == null) return null;
+
+    final int dot = encodedValue.indexOf('.');
+
+    if(dot < 0) return null;
+
+    final SecretKeySpec secretKey = secretKeys.get(encodedValue.substring(0, dot));
+
+    if(secretKey == null) return null;
+
+    final byte[] data;
+
+    try {
+      data = DECODER.decode(encodedValue.substring(dot + 1));
+    } catch(final IllegalArgumentException e) {
+      return null;
+    }
+
+    if(data.length < IV_LENGTH + TAG_LENGTH_BITS / 8) return null;
+
+    final Cipher cipher = CIPHER.get();
+
+    try {
+      cipher.init(Cipher.DECRYPT_MODE, secretKey, new GCMParameterSpec(TAG_LENGTH_BITS, data, 0, IV_LENGTH));
+      cipher.updateAAD(name.getBytes(StandardCharsets.UTF_8));
+
+      return new String(cipher.doFinal(data, IV_LENGTH, data.length - IV_LENGTH), StandardCharsets.UTF_8);
+    } catch(final AEADBadTagException e) {
+      // Tampered with, or encrypted for another cookie.
+      return null;
+    } catch(final GeneralSecurityException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  // Getters
+  //--------------------------------------------------
+
+  public String getCurrentKeyId() {
+    return currentKeyId;
+  }
+
+}
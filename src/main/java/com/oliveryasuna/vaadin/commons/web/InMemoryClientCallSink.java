@@ -0,0 +1,286 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.oliveryasuna.vaadin.commons.web;
+
+import com.oliveryasuna.commons.language.condition.Arguments;
+import com.vaadin.flow.component.UI;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link ClientCallSink} that keeps statistics in memory, per type of operation.
+ * <p>
+ * Latencies are recorded in a histogram with power-of-two microsecond buckets, so percentiles are accurate to within a factor of two.
+ *
+ * @author Oliver Yasuna
+ * @since 3.0.0
+ */
+public class InMemoryClientCallSink implements ClientCallSink {
+
+  // Constructors
+  //--------------------------------------------------
+
+  public InMemoryClientCallSink() {
+    super();
+  }
+
+  // Fields
+  //--------------------------------------------------
+
+  private final Map<String, OperationStatistics> statistics = new ConcurrentHashMap<>();
+
+  // Methods
+  //--------------------------------------------------
+
+  /**
+   * Gets the statistics of a type of operation.
+   *
+   * @param operation The type of operation.
+   *
+   * @return The statistics, or {@code null}, if no call of the type was recorded.
+   */
+  public OperationStatistics getStatistics(final String operation) {
+    Arguments.requireNotNull(operation);
+
+    return statistics.get(operation);
+  }
+
+  /**
+   * Gets the statistics of all types of operations.
+   *
+   * @return An unmodifiable view of the statistics, by type of operation.
+   */
+  public Map<String, OperationStatistics> getStatistics() {
+    return Collections.unmodifiableMap(statistics);
+  }
+
+  /**
+   * Discards all statistics.
+   */
+  public void reset() {
+    statistics.clear();
+  }
+
+  // Overrides
+  //--------------------------------------------------
+
+  // ClientCallSink
+  //
+
+  @Override
+  public void callStarted(final UI ui, final String operation, final int inFlightCount) {
+    statistics.computeIfAbsent(operation, key -> new OperationStatistics())
+        .recordStart(inFlightCount);
+  }
+
+  @Override
+  public void callEnded(final UI ui, final String operation, final long latencyNanos, final Outcome outcome, final int inFlightCount) {
+    statistics.computeIfAbsent(operation, key -> new OperationStatistics())
+        .recordEnd(latencyNanos, outcome);
+  }
+
+  // Nested
+  //--------------------------------------------------
+
+  /**
+   * Statistics of a type of operation.
+   * Values are updated concurrently, so values read one after another may be slightly inconsistent.
+   *
+   * @author Oliver Yasuna
+   */
+  public static final class OperationStatistics {
+
+    // Static fields
+    //--------------------------------------------------
+
+    private static final int BUCKET_COUNT = 40;
+
+    // Static utility methods
+    //--------------------------------------------------
+
+    private static int bucket(final long latencyNanos) {
+      final long micros = Math.max(latencyNanos / 1000L, 1L);
+
+      return Math.min(63 - Long.numberOfLeadingZeros(micros), BUCKET_COUNT - 1);
+    }
+
+    // Constructors
+    //--------------------------------------------------
+
+    private OperationStatistics() {
+      super();
+    }
+
+    // Fields
+    //--------------------------------------------------
+
+    /**
+     * Bucket {@code i} counts latencies from {@code 2^i} up to {@code 2^(i+1)} microseconds.
+     */
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+    private final LongAdder startedCount = new LongAdder();
+
+    private final LongAdder successCount = new LongAdder();
+
+    private final LongAdder failureCount = new LongAdder();
+
+    private final LongAdder timeoutCount = new LongAdder();
+
+    private final LongAdder cancelledCount = new LongAdder();
+
+    private final LongAdder rejectedCount = new LongAdder();
+
+    private final LongAdder totalLatencyNanos = new LongAdder();
+
+    private final LongAccumulator maxLatencyNanos = new LongAccumulator(Math::max, 0L);
+
+    private final LongAccumulator maxInFlightCount = new LongAccumulator(Math::max, 0L);
+
+    // Methods
+    //--------------------------------------------------
+
+    private void recordStart(final int inFlightCount) {
+      startedCount.increment();
+      maxInFlightCount.accumulate(inFlightCount);
+    }
+
+    private void recordEnd(final long latencyNanos, final Outcome outcome) {
+      switch(outcome) {
+        case SUCCESS:
+          successCount.increment();
+          break;
+        case FAILURE:
+          failureCount.increment();
+          break;
+        case TIMEOUT:
+          timeoutCount.increment();
+          break;
+        case CANCELLED:
+          cancelledCount.increment();
+          break;
+        case REJECTED:
+          // Rejected calls took no time.
+          rejectedCount.increment();
+          return;
+      }
+
+      buckets.incrementAndGet(bucket(latencyNanos));
+      totalLatencyNanos.add(latencyNanos);
+      maxLatencyNanos.accumulate(latencyNanos);
+    }
+
+    /**
+     * Gets the number of completed calls.
+     *
+     * @return The number of completed calls, regardless of outcome, excluding rejected calls.
+     */
+    public long getCompletedCount() {
+      return (successCount.sum() + failureCount.sum() + timeoutCount.sum() + cancelledCount.sum());
+    }
+
+    /**
+     * Gets the mean latency of completed calls.
+     *
+     * @return The mean latency, in nanoseconds, or {@code 0}, if no call completed.
+     */
+    public long getMeanLatencyNanos() {
+      final long count = getCompletedCount();
+
+      return (count != 0L ? totalLatencyNanos.sum() / count : 0L);
+    }
+
+    /**
+     * Gets an upper bound of a latency percentile of completed calls.
+     *
+     * @param percentile The percentile, from {@code 0} to {@code 100}.
+     *
+     * @return The upper bound of the histogram bucket containing the percentile, in nanoseconds, or {@code 0}, if no call completed.
+     */
+    public long getLatencyPercentileNanos(final double percentile) {
+      if(percentile < 0.0 || percentile > 100.0) throw new IllegalArgumentException("Percentile must be between 0 and 100.");
+
+      final long[] counts = new long[BUCKET_COUNT];
+      long total = 0L;
+
+      for(int i = 0; i < BUCKET_COUNT; i++) {
+        counts[i] = buckets.get(i);
+        total += counts[i];
+      }
+
+      if(total == 0L) return 0L;
+
+      final long rank = Math.max((long)Math.ceil(total * percentile / 100.0), 1L);
+      long seen = 0L;
+
+      for(int i = 0; i < BUCKET_COUNT; i++) {
+        seen += counts[i];
+
+        if(seen >= rank) return Math.min((1L << (i + 1)) * 1000L, maxLatencyNanos.get());
+      }
+
+      return maxLatencyNanos.get();
+    }
+
+    // Getters
+    //--------------------------------------------------
+
+    public long getStartedCount() {
+      return startedCount.sum();
+    }
+
+    public long getSuccessCount() {
+      return successCount.sum();
+    }
+
+    public long getFailureCount() {
+      return failureCount.sum();
+    }
+
+    public long getTimeoutCount() {
+      return timeoutCount.sum();
+    }
+
+    public long getCancelledCount() {
+      return cancelledCount.sum();
+    }
+
+    public long getRejectedCount() {
+      return rejectedCount.sum();
+    }
+
+    public long getMaxLatencyNanos() {
+      return maxLatencyNanos.get();
+    }
+
+    /**
+     * Gets the highest number of calls of a single {@link UI} in flight when a call of this type was issued.
+     */
+    public long getMaxInFlightCount() {
+      return maxInFlightCount.get();
+    }
+
+  }
+
+}
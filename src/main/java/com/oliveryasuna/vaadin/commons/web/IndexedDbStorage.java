@@ -0,0 +1,535 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.oliveryasuna.vaadin.commons.web;
+
+import com.oliveryasuna.commons.language.condition.Arguments;
+import com.oliveryasuna.commons.language.exception.UnsupportedInstantiationException;
+import com.oliveryasuna.commons.language.marker.Immutable;
+import com.oliveryasuna.commons.language.marker.Utility;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.server.StreamReceiver;
+import com.vaadin.flow.server.StreamRegistration;
+import com.vaadin.flow.server.StreamResource;
+import com.vaadin.flow.server.StreamVariable;
+import elemental.json.JsonArray;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * For manipulating <a href="https://developer.mozilla.org/en-US/docs/Web/API/IndexedDB_API">IndexedDB</a> object stores with the same API shape as
+ * {@link BrowserStorage}.
+ * <p>
+ * Unlike {@code localStorage} and {@code sessionStorage}, IndexedDB is asynchronous, can hold binary values, and is not limited to a few megabytes.
+ * Binary values are transferred through temporary {@link StreamResource}s and {@link StreamReceiver}s rather than being JSON-encoded,
+ * so they do not bloat the UIDL channel.
+ * <p>
+ * Object stores are created on first use.
+ *
+ * @author Oliver Yasuna
+ * @since 3.0.0
+ */
+@Utility
+public final class IndexedDbStorage {
+
+  // Static fields
+  //--------------------------------------------------
+
+  /**
+   * The default maximum size, in bytes, of a value uploaded by {@link #getBinaryItem(UI, Store, String)}.
+   */
+  public static final int DEFAULT_MAX_BINARY_ITEM_SIZE = 64 * 1024 * 1024;
+
+  /**
+   * Defines {@code window.__fcIdb(database, store, mode, request)}, which opens a database, creating the object store if needed, runs a request in a
+   * transaction, and resolves to its result.
+   * <p>
+   * Creating an object store in an existing database requires a version upgrade, which is blocked while another tab has the database open.
+   * Connections therefore close themselves when another tab upgrades, and a blocked upgrade rejects rather than waiting indefinitely.
+   */
+  private static final String HELPER_SCRIPT = "window.__fcIdb=window.__fcIdb||(()=>{"
+      + "const c=(s)=>(db)=>{if(!db.objectStoreNames.contains(s))db.createObjectStore(s);};const w=(db)=>{db.onversionchange=()=>db.close();return db;};"
+      + "const open=(d,s)=>new Promise((res,rej)=>{const r=indexedDB.open(d);r.onupgradeneeded=()=>c(s)(r.result);r.onerror=()=>rej(r.error);"
+      + "r.onsuccess=()=>{const db=r.result;if(db.objectStoreNames.contains(s)){res(w(db));return;}const v=db.version+1;db.close();"
+      + "let b=false;const u=indexedDB.open(d,v);u.onupgradeneeded=()=>c(s)(u.result);u.onerror=()=>rej(u.error);"
+      + "u.onblocked=()=>{b=true;rej(new Error('Creating object store '+s+' is blocked by another connection to '+d+'.'));};"
+      + "u.onsuccess=()=>{if(b){u.result.close();return;}res(w(u.result));};};});"
+      + "return (d,s,m,f)=>open(d,s).then(db=>new Promise((res,rej)=>{const t=db.transaction(s,m);const r=f(t.objectStore(s));"
+      + "t.oncomplete=()=>{db.close();res(r.result===undefined?null:r.result);};t.onerror=t.onabort=()=>{db.close();rej(t.error);};}));"
+      + "})();";
+
+  /**
+   * The helper script, as a definition for {@link ClientCalls#execute(UI, String, Class, Map, String, Serializable...)}.
+   */
+  private static final Map<String, String> HELPER_DEFINITIONS = Map.of(IndexedDbStorage.class.getName(), HELPER_SCRIPT);
+
+  private static final String RESOURCE_NAME = "data";
+
+  // Static utility methods
+  //--------------------------------------------------
+
+  /**
+   * Gets a string item in an object store.
+   *
+   * @param ui    The {@link UI} instance.
+   * @param store The object store.
+   * @param key   The key of the item.
+   *
+   * @return A {@link CompletableFuture} containing the value of the item.
+   *     If there is no item, or it is not a string, {@code null}.
+   */
+  public static CompletableFuture<String> getItem(final UI ui, final Store store, final String key) {
+    Arguments.requireNotNull(ui);
+    Arguments.requireNotNull(store);
+    Arguments.requireNotNull(key);
+
+    return execute(ui, "IndexedDbStorage.getItem", String.class,
+            "return window.__fcIdb($0,$1,'readonly',o=>o.get($2)).then(v=>typeof v==='string'?v:null);",
+            store.getDatabaseName(), store.getObjectStoreName(), key);
+  }
+
+  /**
+   * Calls {@link #getItem(UI, Store, String)} with the specific first argument, {@code UI.getCurrent()}.
+   */
+  public static CompletableFuture<String> getItem(final Store store, final String key) {
+    return getItem(UI.getCurrent(), store, key);
+  }
+
+  /**
+   * Sets a string item in an object store.
+   *
+   * @param ui    The {@link UI} instance.
+   * @param store The object store.
+   * @param key   The key of the item.
+   * @param value The value of the item.
+   *
+   * @return A {@link CompletableFuture} which can be used to determine completeness.
+   */
+  public static CompletableFuture<Void> setItem(final UI ui, final Store store, final String key, final String value) {
+    Arguments.requireNotNull(ui);
+    Arguments.requireNotNull(store);
+    Arguments.requireNotNull(key);
+
+    return execute(ui, "IndexedDbStorage.setItem", Void.class,
+            "return window.__fcIdb($0,$1,'readwrite',o=>o.put($3,$2)).then(()=>null);",
+            store.getDatabaseName(), store.getObjectStoreName(), key, value);
+  }
+
+  /**
+   * Calls {@link #setItem(UI, Store, String, String)} with the specific first argument, {@code UI.getCurrent()}.
+   */
+  public static CompletableFuture<Void> setItem(final Store store, final String key, final String value) {
+    return setItem(UI.getCurrent(), store, key, value);
+  }
+
+  /**
+   * Gets a binary item in an object store.
+   * <p>
+   * The value is uploaded by the browser to a temporary {@link StreamReceiver}.
+   *
+   * @param ui      The {@link UI} instance.
+   * @param store   The object store.
+   * @param key     The key of the item.
+   * @param maxSize The maximum size, in bytes, of the value. The upload is aborted when it is exceeded.
+   *
+   * @return A {@link CompletableFuture} containing the value of the item.
+   *     If there is no item, {@code null}.
+   *     It completes exceptionally if the upload fails, such as when the value exceeds {@code maxSize}.
+   */
+  public static CompletableFuture<byte[]> getBinaryItem(final UI ui, final Store store, final String key, final int maxSize) {
+    Arguments.requireNotNull(ui);
+    Arguments.requireNotNull(store);
+    Arguments.requireNotNull(key);
+    Arguments.requireGreaterOrSame(maxSize, 0);
+
+    final ByteArrayStreamVariable streamVariable = new ByteArrayStreamVariable(maxSize);
+    final StreamRegistration registration = ui.getSession().getResourceRegistry()
+        .registerResource(new StreamReceiver(ui.getElement().getNode(), RESOURCE_NAME, streamVariable));
+
+    final CompletableFuture<Boolean> result = execute(ui, "IndexedDbStorage.getBinaryItem", Boolean.class,
+        "return window.__fcIdb($0,$1,'readonly',o=>o.get($2)).then(v=>{if(v===null)return false;"
+            + "const f=new FormData();f.append('file',v instanceof Blob?v:new Blob([v]),$4);"
+            + "return fetch($3,{method:'POST',body:f}).then(r=>{if(!r.ok)throw new Error('Upload failed: '+r.status);return true;});});",
+        store.getDatabaseName(), store.getObjectStoreName(), key, registration.getResourceUri().toString(), RESOURCE_NAME);
+
+    // Not in the dependent future below, which does not run its function if it is cancelled.
+    result.whenComplete((found, throwable) -> registration.unregister());
+
+    return ClientCalls.propagateCancellation(result, result
+        .handle((found, throwable) -> {
+          // The failure of the upload explains the failure of the script, if any.
+          if(streamVariable.failure != null) throw new CompletionException(new IllegalStateException("Upload failed.", streamVariable.failure));
+          if(throwable != null) throw (throwable instanceof CompletionException ? (CompletionException)throwable : new CompletionException(throwable));
+
+          return (Boolean.TRUE.equals(found) ? streamVariable.bytes.toByteArray() : null);
+        }));
+  }
+
+  /**
+   * Calls {@link #getBinaryItem(UI, Store, String, int)} with the specific last argument, {@link #DEFAULT_MAX_BINARY_ITEM_SIZE}.
+   */
+  public static CompletableFuture<byte[]> getBinaryItem(final UI ui, final Store store, final String key) {
+    return getBinaryItem(ui, store, key, DEFAULT_MAX_BINARY_ITEM_SIZE);
+  }
+
+  /**
+   * Calls {@link #getBinaryItem(UI, Store, String, int)} with the specific first argument, {@code UI.getCurrent()}.
+   */
+  public static CompletableFuture<byte[]> getBinaryItem(final Store store, final String key, final int maxSize) {
+    return getBinaryItem(UI.getCurrent(), store, key, maxSize);
+  }
+
+  /**
+   * Calls {@link #getBinaryItem(UI, Store, String)} with the specific first argument, {@code UI.getCurrent()}.
+   */
+  public static CompletableFuture<byte[]> getBinaryItem(final Store store, final String key) {
+    return getBinaryItem(UI.getCurrent(), store, key);
+  }
+
+  /**
+   * Sets a binary item in an object store.
+   * <p>
+   * The value is downloaded by the browser from a temporary {@link StreamResource} and stored as a {@code Blob}.
+   *
+   * @param ui    The {@link UI} instance.
+   * @param store The object store.
+   * @param key   The key of the item.
+   * @param value The value of the item.
+   *
+   * @return A {@link CompletableFuture} which can be used to determine completeness.
+   */
+  public static CompletableFuture<Void> setBinaryItem(final UI ui, final Store store, final String key, final byte[] value) {
+    Arguments.requireNotNull(ui);
+    Arguments.requireNotNull(store);
+    Arguments.requireNotNull(key);
+    Arguments.requireNotNull(value);
+
+    final StreamResource resource = new StreamResource(RESOURCE_NAME, () -> new ByteArrayInputStream(value));
+
+    resource.setContentType("application/octet-stream");
+
+    final StreamRegistration registration = ui.getSession().getResourceRegistry().registerResource(resource);
+
+    final CompletableFuture<Void> result = execute(ui, "IndexedDbStorage.setBinaryItem", Void.class,
+        "return fetch($3).then(r=>{if(!r.ok)throw new Error('Download failed: '+r.status);return r.blob();})"
+            + ".then(b=>window.__fcIdb($0,$1,'readwrite',o=>o.put(b,$2))).then(()=>null);",
+        store.getDatabaseName(), store.getObjectStoreName(), key, registration.getResourceUri().toString());
+
+    result.whenComplete((ignored, throwable) -> registration.unregister());
+
+    return result;
+  }
+
+  /**
+   * Calls {@link #setBinaryItem(UI, Store, String, byte[])} with the specific first argument, {@code UI.getCurrent()}.
+   */
+  public static CompletableFuture<Void> setBinaryItem(final Store store, final String key, final byte[] value) {
+    return setBinaryItem(UI.getCurrent(), store, key, value);
+  }
+
+  /**
+   * Removes an item from an object store.
+   *
+   * @param ui    The {@link UI} instance.
+   * @param store The object store.
+   * @param key   The key of the item.
+   *
+   * @return A {@link CompletableFuture} which can be used to determine completeness.
+   */
+  public static CompletableFuture<Void> removeItem(final UI ui, final Store store, final String key) {
+    Arguments.requireNotNull(ui);
+    Arguments.requireNotNull(store);
+    Arguments.requireNotNull(key);
+
+    return execute(ui, "IndexedDbStorage.removeItem", Void.class,
+            "return window.__fcIdb($0,$1,'readwrite',o=>o.delete($2)).then(()=>null);",
+            store.getDatabaseName(), store.getObjectStoreName(), key);
+  }
+
+  /**
+   * Calls {@link #removeItem(UI, Store, String)} with the specific first argument, {@code UI.getCurrent()}.
+   */
+  public static CompletableFuture<Void> removeItem(final Store store, final String key) {
+    return removeItem(UI.getCurrent(), store, key);
+  }
+
+  /**
+   * Clears all items from an object store.
+   *
+   * @param ui    The {@link UI} instance.
+   * @param store The object store.
+   *
+   * @return A {@link CompletableFuture} which can be used to determine completeness.
+   */
+  public static CompletableFuture<Void> clear(final UI ui, final Store store) {
+    Arguments.requireNotNull(ui);
+    Arguments.requireNotNull(store);
+
+    return execute(ui, "IndexedDbStorage.clear", Void.class,
+            "return window.__fcIdb($0,$1,'readwrite',o=>o.clear()).then(()=>null);",
+            store.getDatabaseName(), store.getObjectStoreName());
+  }
+
+  /**
+   * Calls {@link #clear(UI, Store)} with the specific first argument, {@code UI.getCurrent()}.
+   */
+  public static CompletableFuture<Void> clear(final Store store) {
+    return clear(UI.getCurrent(), store);
+  }
+
+  /**
+   * Gets the keys of all items in an object store.
+   *
+   * @param ui    The {@link UI} instance.
+   * @param store The object store.
+   *
+   * @return A {@link CompletableFuture} containing an unmodifiable list of keys.
+   */
+  public static CompletableFuture<List<String>> keys(final UI ui, final Store store) {
+    Arguments.requireNotNull(ui);
+    Arguments.requireNotNull(store);
+
+    final CompletableFuture<JsonArray> result = execute(ui, "IndexedDbStorage.keys", JsonArray.class,
+        "return window.__fcIdb($0,$1,'readonly',o=>o.getAllKeys()).then(k=>k.map(String));",
+        store.getDatabaseName(), store.getObjectStoreName());
+
+    return ClientCalls.propagateCancellation(result, result
+        .thenApply(jsonKeys -> {
+          if(jsonKeys == null) return Collections.emptyList();
+
+          final List<String> keys = new ArrayList<>(jsonKeys.length());
+
+          for(int i = 0; i < jsonKeys.length(); i++) {
+            keys.add(jsonKeys.getString(i));
+          }
+
+          return Collections.unmodifiableList(keys);
+        }));
+  }
+
+  /**
+   * Calls {@link #keys(UI, Store)} with the specific first argument, {@code UI.getCurrent()}.
+   */
+  public static CompletableFuture<List<String>> keys(final Store store) {
+    return keys(UI.getCurrent(), store);
+  }
+
+  /**
+   * Gets the number of items in an object store.
+   *
+   * @param ui    The {@link UI} instance.
+   * @param store The object store.
+   *
+   * @return A {@link CompletableFuture} containing the number of items.
+   */
+  public static CompletableFuture<Integer> length(final UI ui, final Store store) {
+    Arguments.requireNotNull(ui);
+    Arguments.requireNotNull(store);
+
+    return execute(ui, "IndexedDbStorage.length", Integer.class,
+            "return window.__fcIdb($0,$1,'readonly',o=>o.count());",
+            store.getDatabaseName(), store.getObjectStoreName());
+  }
+
+  /**
+   * Calls {@link #length(UI, Store)} with the specific first argument, {@code UI.getCurrent()}.
+   */
+  public static CompletableFuture<Integer> length(final Store store) {
+    return length(UI.getCurrent(), store);
+  }
+
+  /**
+   * Executes an operation, defining the helper script first, unless it has been sent to the {@link UI}.
+   */
+  private static <T> CompletableFuture<T> execute(final UI ui, final String operation, final Class<T> resultType, final String expression,
+      final Serializable... parameters) {
+    return ClientCalls.execute(ui, operation, resultType, HELPER_DEFINITIONS, expression, parameters);
+  }
+
+  // Constructors
+  //--------------------------------------------------
+
+  private IndexedDbStorage() {
+    super();
+
+    throw new UnsupportedInstantiationException();
+  }
+
+  // Nested
+  //--------------------------------------------------
+
+  /**
+   * An IndexedDB object store.
+   *
+   * @author Oliver Yasuna
+   */
+  @Immutable
+  public static final class Store implements Serializable {
+
+    // Constructors
+    //--------------------------------------------------
+
+    /**
+     * Creates a new object store reference.
+     *
+     * @param databaseName    The name of the database.
+     * @param objectStoreName The name of the object store.
+     */
+    public Store(final String databaseName, final String objectStoreName) {
+      super();
+
+      Arguments.requireNotNull(databaseName);
+      Arguments.requireNotNull(objectStoreName);
+
+      this.databaseName = databaseName;
+      this.objectStoreName = objectStoreName;
+    }
+
+    // Fields
+    //--------------------------------------------------
+
+    private final String databaseName;
+
+    private final String objectStoreName;
+
+    // Getters
+    //--------------------------------------------------
+
+    public String getDatabaseName() {
+      return databaseName;
+    }
+
+    public String getObjectStoreName() {
+      return objectStoreName;
+    }
+
+    // Object methods
+    //--------------------------------------------------
+
+    @Override
+    public boolean equals(final Object other) {
+      if(this == other) return true;
+      if(other == null || getClass() != other.getClass()) return false;
+
+      final Store otherCasted = (Store)other;
+
+      return (databaseName.equals(otherCasted.databaseName) && objectStoreName.equals(otherCasted.objectStoreName));
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(databaseName, objectStoreName);
+    }
+
+  }
+
+  /**
+   * Collects an upload into a byte array of limited size.
+   *
+   * @author Oliver Yasuna
+   */
+  private static final class ByteArrayStreamVariable implements StreamVariable {
+
+    // Constructors
+    //--------------------------------------------------
+
+    private ByteArrayStreamVariable(final int maxSize) {
+      super();
+
+      this.maxSize = maxSize;
+    }
+
+    // Fields
+    //--------------------------------------------------
+
+    private final int maxSize;
+
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+    private boolean exceeded;
+
+    private Exception failure;
+
+    // Overrides
+    //--------------------------------------------------
+
+    // StreamVariable
+    //
+
+    @Override
+    public OutputStream getOutputStream() {
+      return new OutputStream() {
+        @Override
+        public void write(final int b) throws IOException {
+          write(new byte[]{(byte)b}, 0, 1);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+          if(bytes.size() + (long)len > maxSize) {
+            exceeded = true;
+
+            throw new IOException("Binary item exceeds " + maxSize + " bytes.");
+          }
+
+          bytes.write(b, off, len);
+        }
+      };
+    }
+
+    @Override
+    public boolean listenProgress() {
+      return false;
+    }
+
+    @Override
+    public void onProgress(final StreamingProgressEvent event) {
+    }
+
+    @Override
+    public void streamingStarted(final StreamingStartEvent event) {
+    }
+
+    @Override
+    public void streamingFinished(final StreamingEndEvent event) {
+    }
+
+    @Override
+    public void streamingFailed(final StreamingErrorEvent event) {
+      failure = event.getException();
+    }
+
+    @Override
+    public boolean isInterrupted() {
+      return exceeded;
+    }
+
+  }
+
+}
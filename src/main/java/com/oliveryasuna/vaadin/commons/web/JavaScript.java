@@ -23,6 +23,17 @@ import com.oliveryasuna.commons.language.exception.UnsupportedInstantiationExcep
 import com.oliveryasuna.commons.language.marker.Utility;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.page.PendingJavaScriptResult;
+import com.vaadin.flow.dom.Element;
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonType;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Various JavaScript utilities.
@@ -33,6 +44,24 @@ import com.vaadin.flow.component.page.PendingJavaScriptResult;
 @Utility
 public final class JavaScript {
 
+  // Static fields
+  //--------------------------------------------------
+
+  /**
+   * The name of the global object holding prepared functions, by handle.
+   */
+  private static final String PREPARED_FUNCTIONS_OBJECT = "__fcFn";
+
+  /**
+   * Measures elements {@code e}, returning flat arrays of bounds, if {@code b}, and of the computed style properties {@code p}.
+   * Missing elements are measured as {@code null}s.
+   */
+  private static final PreparedFunction MEASURE_FUNCTION = new PreparedFunction(new String[]{"e", "b", "p"},
+      "const r=[],s=[];for(const x of e){if(!x){if(b)r.push(null,null,null,null);for(const q of p)s.push(null);continue;}"
+      + "if(b){const c=x.getBoundingClientRect();r.push(c.left,c.top,c.width,c.height);}"
+      + "if(p.length){const c=getComputedStyle(x);for(const q of p)s.push(c.getPropertyValue(q));}}"
+      + "return [r,s];");
+
   // Static utility methods
   //--------------------------------------------------
 
@@ -53,12 +82,11 @@ public final class JavaScript {
     Arguments.requireNotNull(functionName);
     if(functionParameters != null) Arguments.requireNotContainsSame(functionParameters, null);
 
-    return UI.getCurrent().getPage().executeJs(
-        "$0$1=($2)=>{$3};",
-        objectName != null ? objectName + "." : "",
-        functionName,
-        functionParameters != null ? String.join(",", functionParameters) : "",
-        functionBody != null ? functionBody : "");
+    // Names and code cannot be passed as parameters, which are values.
+    return ui.getPage().executeJs(
+        (objectName != null ? objectName + "." : "window.") + functionName
+        + "=(" + (functionParameters != null ? String.join(",", functionParameters) : "") + ")=>{"
+        + (functionBody != null ? functionBody : "") + "};");
   }
 
   /**
@@ -71,9 +99,206 @@ public final class JavaScript {
     return defineFunction(UI.getCurrent(), objectName, functionName, functionParameters, functionBody);
   }
 
-  // TODO: getBounds() using getBoundedClientRect().
+  /**
+   * Invokes a prepared function.
+   * <p>
+   * The function is sent to the {@link UI} with the invocations until one of them is sent to the browser; later invocations only send its handle and
+   * the arguments.
+   * Invocations that are cancelled or rejected before they are sent do not count, and the function is sent again after the {@link UI} is detached.
+   *
+   * @param ui         The {@link UI} instance.
+   * @param function   The function.
+   * @param resultType The type of the result, as supported by {@link com.vaadin.flow.component.page.PendingJavaScriptResult#toCompletableFuture(Class)}.
+   * @param arguments  The arguments, as supported by {@link com.vaadin.flow.component.page.Page#executeJs(String, Serializable...)}.
+   * @param <T>        The type of the result.
+   *
+   * @return A {@link CompletableFuture} containing the result of the function.
+   */
+  public static <T> CompletableFuture<T> invoke(final UI ui, final PreparedFunction function, final Class<T> resultType,
+      final Serializable... arguments) {
+    Arguments.requireNotNull(ui);
+    Arguments.requireNotNull(function);
+    Arguments.requireNotNull(resultType);
+    Arguments.requireNotNull(arguments);
+
+    return ClientCalls.execute(ui, "JavaScript.invoke", resultType, Map.of(function.getHandle(), preparedFunctionDefinition(function)),
+        preparedFunctionInvocation(function, arguments.length), arguments);
+  }
+
+  /**
+   * Calls {@link #invoke(UI, PreparedFunction, Class, Serializable...)} with the specific first argument, {@code UI.getCurrent()}.
+   */
+  public static <T> CompletableFuture<T> invoke(final PreparedFunction function, final Class<T> resultType, final Serializable... arguments) {
+    return invoke(UI.getCurrent(), function, resultType, arguments);
+  }
+
+  /**
+   * Creates a batch of calls, executed in one round trip.
+   *
+   * @param ui The {@link UI} instance.
+   *
+   * @return A new batch.
+   */
+  public static JavaScriptBatch batch(final UI ui) {
+    Arguments.requireNotNull(ui);
+
+    return new JavaScriptBatch(ui);
+  }
+
+  /**
+   * Calls {@link #batch(UI)} with the specific first argument, {@code UI.getCurrent()}.
+   */
+  public static JavaScriptBatch batch() {
+    return batch(UI.getCurrent());
+  }
 
-  // TODO: getStyle() using getComputedStyle().
+  /**
+   * Gets the statement that defines a prepared function.
+   */
+  static String preparedFunctionDefinition(final PreparedFunction function) {
+    return ("(window." + PREPARED_FUNCTIONS_OBJECT + "||(window." + PREPARED_FUNCTIONS_OBJECT + "={}))." + function.getHandle() + "="
+        + function.getDefinition() + ";");
+  }
+
+  /**
+   * Gets the statement that invokes a prepared function with the parameters {@code $0} to {@code $(argumentCount - 1)}, and returns its result.
+   */
+  static String preparedFunctionInvocation(final PreparedFunction function, final int argumentCount) {
+    final StringBuilder invocation = new StringBuilder();
+
+    invocation.append("return window.").append(PREPARED_FUNCTIONS_OBJECT).append('.').append(function.getHandle()).append('(');
+    for(int i = 0; i < argumentCount; i++) {
+      if(i != 0) invocation.append(',');
+      invocation.append('$').append(i);
+    }
+    invocation.append(");");
+
+    return invocation.toString();
+  }
+
+  /**
+   * Measures the bounds and computed styles of elements in one round trip.
+   * <p>
+   * Results are returned as flat arrays: four numbers per element for the bounds, and one string per element and style property.
+   *
+   * @param ui              The {@link UI} instance.
+   * @param elements        The elements.
+   * @param bounds          Whether to measure bounds, with {@code getBoundingClientRect()}.
+   * @param styleProperties The style properties to measure, with {@code getComputedStyle()}.
+   *
+   * @return A {@link CompletableFuture} containing the measurements, indexed by position in {@code elements}.
+   */
+  public static CompletableFuture<ElementMeasurements> measure(final UI ui, final Collection<Element> elements, final boolean bounds,
+      final List<String> styleProperties) {
+    Arguments.requireNotNull(ui);
+    Arguments.requireNotNull(elements);
+    Arguments.requireNotNull(styleProperties);
+
+    final List<String> properties = List.copyOf(styleProperties);
+    final int size = elements.size();
+
+    if(size == 0) return CompletableFuture.completedFuture(new ElementMeasurements(0, new double[0], properties, new String[0]));
+
+    final JsonArray jsonProperties = Json.createArray();
+
+    for(final String property : properties) {
+      jsonProperties.set(jsonProperties.length(), property);
+    }
+
+    // Elements can only be passed as parameters of their own.
+    final Serializable[] parameters = new Serializable[size + 2];
+    final StringBuilder expression = new StringBuilder();
+
+    expression.append("return window.").append(PREPARED_FUNCTIONS_OBJECT).append('.').append(MEASURE_FUNCTION.getHandle()).append("([");
+
+    int i = 0;
+
+    for(final Element element : elements) {
+      parameters[i] = Arguments.requireNotNull(element);
+
+      if(i != 0) expression.append(',');
+      expression.append('$').append(i);
+
+      i++;
+    }
+
+    parameters[size] = bounds;
+    parameters[size + 1] = jsonProperties;
+
+    expression.append("],$").append(size).append(",$").append(size + 1).append(");");
+
+    final CompletableFuture<JsonArray> result = ClientCalls.execute(ui, "JavaScript.measure", JsonArray.class,
+        Map.of(MEASURE_FUNCTION.getHandle(), preparedFunctionDefinition(MEASURE_FUNCTION)), expression.toString(), parameters);
+
+    return ClientCalls.propagateCancellation(result, result
+        .thenApply(measurements -> {
+          final JsonArray jsonBounds = measurements.getArray(0);
+          final JsonArray jsonStyles = measurements.getArray(1);
+          final double[] boundsArray = new double[jsonBounds.length()];
+          final String[] styles = new String[jsonStyles.length()];
+
+          for(int j = 0; j < boundsArray.length; j++) {
+            boundsArray[j] = (jsonBounds.get(j).getType() == JsonType.NUMBER ? jsonBounds.getNumber(j) : Double.NaN);
+          }
+
+          for(int j = 0; j < styles.length; j++) {
+            styles[j] = (jsonStyles.get(j).getType() == JsonType.STRING ? jsonStyles.getString(j) : null);
+          }
+
+          return new ElementMeasurements(size, boundsArray, properties, styles);
+        }));
+  }
+
+  /**
+   * Calls {@link #measure(UI, Collection, boolean, List)} with the specific first argument, {@code UI.getCurrent()}.
+   */
+  public static CompletableFuture<ElementMeasurements> measure(final Collection<Element> elements, final boolean bounds,
+      final List<String> styleProperties) {
+    return measure(UI.getCurrent(), elements, bounds, styleProperties);
+  }
+
+  /**
+   * Gets the bounds of elements in one round trip, with {@code getBoundingClientRect()}.
+   *
+   * @param ui       The {@link UI} instance.
+   * @param elements The elements.
+   *
+   * @return A {@link CompletableFuture} containing the measurements, indexed by position in {@code elements}.
+   *
+   * @see #measure(UI, Collection, boolean, List)
+   */
+  public static CompletableFuture<ElementMeasurements> getBounds(final UI ui, final Collection<Element> elements) {
+    return measure(ui, elements, true, Collections.emptyList());
+  }
+
+  /**
+   * Calls {@link #getBounds(UI, Collection)} with the specific first argument, {@code UI.getCurrent()}.
+   */
+  public static CompletableFuture<ElementMeasurements> getBounds(final Collection<Element> elements) {
+    return getBounds(UI.getCurrent(), elements);
+  }
+
+  /**
+   * Gets computed style properties of elements in one round trip, with {@code getComputedStyle()}.
+   *
+   * @param ui              The {@link UI} instance.
+   * @param elements        The elements.
+   * @param styleProperties The style properties.
+   *
+   * @return A {@link CompletableFuture} containing the measurements, indexed by position in {@code elements}.
+   *
+   * @see #measure(UI, Collection, boolean, List)
+   */
+  public static CompletableFuture<ElementMeasurements> getStyles(final UI ui, final Collection<Element> elements, final List<String> styleProperties) {
+    return measure(ui, elements, false, styleProperties);
+  }
+
+  /**
+   * Calls {@link #getStyles(UI, Collection, List)} with the specific first argument, {@code UI.getCurrent()}.
+   */
+  public static CompletableFuture<ElementMeasurements> getStyles(final Collection<Element> elements, final List<String> styleProperties) {
+    return getStyles(UI.getCurrent(), elements, styleProperties);
+  }
 
   // Constructors
   //--------------------------------------------------
@@ -0,0 +1,260 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.oliveryasuna.vaadin.commons.web;
+
+import com.oliveryasuna.commons.language.condition.Arguments;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.page.PendingJavaScriptResult;
+import com.vaadin.flow.internal.JsonCodec;
+import elemental.json.JsonArray;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Collects JavaScript calls and executes them as a single script, in one round trip.
+ * <p>
+ * Calls run in order of addition.
+ * Each call runs in its own function, with its own {@code $0}, {@code $1}, etc. parameters, and may return a {@code Promise}.
+ * A call that throws, or whose {@code Promise} rejects, only fails its own {@link CompletableFuture}.
+ * <p>
+ * Created with {@link JavaScript#batch(UI)}.
+ * A batch can only be executed once.
+ *
+ * @author Oliver Yasuna
+ * @since 3.0.0
+ */
+public final class JavaScriptBatch {
+
+  // Constructors
+  //--------------------------------------------------
+
+  JavaScriptBatch(final UI ui) {
+    super();
+
+    this.ui = ui;
+  }
+
+  // Fields
+  //--------------------------------------------------
+
+  private final UI ui;
+
+  private final List<Call<?>> calls = new ArrayList<>();
+
+  private final List<Serializable> parameters = new ArrayList<>();
+
+  /**
+   * Definitions of the prepared functions invoked by the calls, by handle.
+   * They are sent with the batch, unless already installed when it is sent.
+   */
+  private final Map<String, String> definitions = new LinkedHashMap<>();
+
+  private boolean executed;
+
+  // Methods
+  //--------------------------------------------------
+
+  /**
+   * Adds a call.
+   *
+   * @param resultType The type of the result, as supported by {@link PendingJavaScriptResult#toCompletableFuture(Class)}.
+   * @param expression The JavaScript expression, as accepted by {@link com.vaadin.flow.component.page.Page#executeJs(String, Serializable...)}.
+   * @param parameters The parameters of the expression.
+   * @param <T>        The type of the result.
+   *
+   * @return A {@link CompletableFuture} containing the result of the call, completed once the batch has been executed.
+   */
+  public <T> CompletableFuture<T> add(final Class<T> resultType, final String expression, final Serializable... parameters) {
+    Arguments.requireNotNull(resultType);
+    Arguments.requireNotNull(expression);
+    Arguments.requireNotNull(parameters);
+    requireNotExecuted();
+
+    final Call<T> call = new Call<>(resultType, expression, this.parameters.size(), parameters.length);
+
+    calls.add(call);
+    this.parameters.addAll(Arrays.asList(parameters));
+
+    return call.future;
+  }
+
+  /**
+   * Adds an invocation of a prepared function.
+   *
+   * @param function   The function.
+   * @param resultType The type of the result, as supported by {@link PendingJavaScriptResult#toCompletableFuture(Class)}.
+   * @param arguments  The arguments.
+   * @param <T>        The type of the result.
+   *
+   * @return A {@link CompletableFuture} containing the result of the call, completed once the batch has been executed.
+   *
+   * @see JavaScript#invoke(UI, PreparedFunction, Class, Serializable...)
+   */
+  public <T> CompletableFuture<T> invoke(final PreparedFunction function, final Class<T> resultType, final Serializable... arguments) {
+    Arguments.requireNotNull(function);
+    Arguments.requireNotNull(arguments);
+    requireNotExecuted();
+
+    definitions.computeIfAbsent(function.getHandle(), handle -> JavaScript.preparedFunctionDefinition(function));
+
+    return add(resultType, JavaScript.preparedFunctionInvocation(function, arguments.length), arguments);
+  }
+
+  /**
+   * Executes the calls.
+   *
+   * @return A {@link CompletableFuture} which completes when the futures of all calls have been completed.
+   *     Cancelling it cancels the batch, completing the futures of all calls exceptionally.
+   */
+  public CompletableFuture<Void> execute() {
+    requireNotExecuted();
+
+    executed = true;
+
+    if(calls.isEmpty()) return CompletableFuture.completedFuture(null);
+
+    final StringBuilder script = new StringBuilder();
+
+    script.append("const c=[");
+    for(final Call<?> call : calls) {
+      call.appendTo(script);
+      script.append(',');
+    }
+    script.append("];");
+    // Results are [1, value] or [0, message].
+    script.append("return Promise.all(c.map(f=>{try{return Promise.resolve(f.call(this)).then(v=>[1,v===undefined?null:v],e=>[0,String(e)]);}")
+        .append("catch(e){return [0,String(e)];}}));");
+
+    final List<Call<?>> executedCalls = new ArrayList<>(calls);
+
+    calls.clear();
+
+    final CompletableFuture<JsonArray> result = ClientCalls.execute(ui, "JavaScript.batch", JsonArray.class, definitions, script.toString(),
+        parameters.toArray(new Serializable[0]));
+
+    final CompletableFuture<Void> completion = result
+        .handle((results, throwable) -> {
+          for(int i = 0; i < executedCalls.size(); i++) {
+            if(throwable != null) {
+              executedCalls.get(i).future.completeExceptionally(throwable);
+            } else {
+              executedCalls.get(i).complete(results.getArray(i));
+            }
+          }
+
+          return null;
+        });
+
+    // A dependent future, as cancelling the one above would keep it from completing the futures of the calls.
+    return ClientCalls.propagateCancellation(result, completion.thenApply(ignored -> null));
+  }
+
+  private void requireNotExecuted() {
+    if(executed) throw new IllegalStateException("The batch has already been executed.");
+  }
+
+  // Getters
+  //--------------------------------------------------
+
+  public UI getUi() {
+    return ui;
+  }
+
+  // Nested
+  //--------------------------------------------------
+
+  /**
+   * A call in a batch.
+   *
+   * @param <T> The type of the result.
+   *
+   * @author Oliver Yasuna
+   */
+  private static final class Call<T> {
+
+    // Constructors
+    //--------------------------------------------------
+
+    private Call(final Class<T> resultType, final String expression, final int firstParameterIndex, final int parameterCount) {
+      super();
+
+      this.resultType = resultType;
+      this.expression = expression;
+      this.firstParameterIndex = firstParameterIndex;
+      this.parameterCount = parameterCount;
+    }
+
+    // Fields
+    //--------------------------------------------------
+
+    private final Class<T> resultType;
+
+    private final String expression;
+
+    /**
+     * The index of the first parameter of the call in the parameters of the batch.
+     */
+    private final int firstParameterIndex;
+
+    private final int parameterCount;
+
+    private final CompletableFuture<T> future = new CompletableFuture<>();
+
+    // Methods
+    //--------------------------------------------------
+
+    /**
+     * Appends the call as a function without parameters, which calls a function of the expression with its own {@code $n} parameters.
+     */
+    private void appendTo(final StringBuilder script) {
+      script.append("function(){return (function(");
+      for(int i = 0; i < parameterCount; i++) {
+        if(i != 0) script.append(',');
+        script.append('$').append(i);
+      }
+      script.append("){").append(expression).append("\n}).call(this");
+      for(int i = 0; i < parameterCount; i++) {
+        script.append(",$").append(firstParameterIndex + i);
+      }
+      script.append(");}");
+    }
+
+    private void complete(final JsonArray result) {
+      if(result.getNumber(0) == 0.0) {
+        future.completeExceptionally(new PendingJavaScriptResult.JavaScriptException(result.getString(1)));
+
+        return;
+      }
+
+      try {
+        future.complete(resultType == Void.class ? null : JsonCodec.decodeAs(result.get(1), resultType));
+      } catch(final RuntimeException e) {
+        future.completeExceptionally(e);
+      }
+    }
+
+  }
+
+}
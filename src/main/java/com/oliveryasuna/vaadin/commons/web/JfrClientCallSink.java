@@ -0,0 +1,107 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.oliveryasuna.vaadin.commons.web;
+
+import com.vaadin.flow.component.UI;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * A {@link ClientCallSink} that commits a JDK Flight Recorder event for each completed call.
+ * <p>
+ * Events are named {@code com.oliveryasuna.vaadin.commons.ClientCall}, and are only committed while a recording has them enabled.
+ *
+ * @author Oliver Yasuna
+ * @since 3.0.0
+ */
+public class JfrClientCallSink implements ClientCallSink {
+
+  // Constructors
+  //--------------------------------------------------
+
+  public JfrClientCallSink() {
+    super();
+  }
+
+  // Overrides
+  //--------------------------------------------------
+
+  // ClientCallSink
+  //
+
+  @Override
+  public void callStarted(final UI ui, final String operation, final int inFlightCount) {
+  }
+
+  @Override
+  public void callEnded(final UI ui, final String operation, final long latencyNanos, final Outcome outcome, final int inFlightCount) {
+    final ClientCallEvent event = new ClientCallEvent();
+
+    if(!event.isEnabled()) return;
+
+    event.operation = operation;
+    event.uiId = ui.getUIId();
+    event.latency = latencyNanos;
+    event.outcome = outcome.name();
+    event.inFlightCount = inFlightCount;
+
+    event.commit();
+  }
+
+  // Nested
+  //--------------------------------------------------
+
+  /**
+   * A completed client call.
+   *
+   * @author Oliver Yasuna
+   */
+  @Name("com.oliveryasuna.vaadin.commons.ClientCall")
+  @Label("Client Call")
+  @Category({"Vaadin", "Client Calls"})
+  @Description("JavaScript executed in the browser whose result the server waited for.")
+  static final class ClientCallEvent extends Event {
+
+    // Fields
+    //--------------------------------------------------
+
+    @Label("Operation")
+    String operation;
+
+    @Label("UI ID")
+    int uiId;
+
+    @Label("Latency")
+    @Timespan(Timespan.NANOSECONDS)
+    long latency;
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("In-Flight Count")
+    @Description("The number of calls of the UI still in flight.")
+    int inFlightCount;
+
+  }
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.oliveryasuna.vaadin.commons.web;
+
+import com.oliveryasuna.commons.language.condition.Arguments;
+import com.oliveryasuna.commons.language.marker.Immutable;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * A JavaScript function that is sent to each {@link com.vaadin.flow.component.UI} once, and invoked by handle afterwards.
+ * <p>
+ * Instances are meant to be created once, such as in a {@code static final} field, and invoked with
+ * {@link JavaScript#invoke(com.vaadin.flow.component.UI, PreparedFunction, Class, Serializable...)}.
+ * The handle is derived from a hash of the parameters and body, so equal functions share a handle.
+ *
+ * @author Oliver Yasuna
+ * @since 3.0.0
+ */
+@Immutable
+public final class PreparedFunction implements Serializable {
+
+  // Static fields
+  //--------------------------------------------------
+
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  /**
+   * The number of hash bytes in a handle.
+   */
+  private static final int HANDLE_BYTES = 8;
+
+  // Static utility methods
+  //--------------------------------------------------
+
+  private static String hash(final String[] parameters, final String body) {
+    final MessageDigest digest;
+
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch(final NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+
+    digest.update(String.join(",", parameters).getBytes(StandardCharsets.UTF_8));
+    digest.update((byte)0);
+
+    final byte[] hash = digest.digest(body.getBytes(StandardCharsets.UTF_8));
+    // Prefixed, so that the handle is a valid identifier.
+    final StringBuilder handle = new StringBuilder(1 + HANDLE_BYTES * 2).append('f');
+
+    for(int i = 0; i < HANDLE_BYTES; i++) {
+      handle.append(HEX_DIGITS[(hash[i] >> 4) & 0xF]).append(HEX_DIGITS[hash[i] & 0xF]);
+    }
+
+    return handle.toString();
+  }
+
+  // Constructors
+  //--------------------------------------------------
+
+  /**
+   * Creates a new prepared function.
+   *
+   * @param parameters The parameters of the function.
+   * @param body       The body of the function. Use {@code return} to return a result, which may be a {@code Promise}.
+   */
+  public PreparedFunction(final String[] parameters, final String body) {
+    super();
+
+    Arguments.requireNotNull(parameters);
+    Arguments.requireNotContainsSame(parameters, null);
+    Arguments.requireNotNull(body);
+
+    this.parameters = parameters.clone();
+    this.body = body;
+    this.handle = hash(this.parameters, body);
+    this.definition = "function(" + String.join(",", this.parameters) + "){" + body + "}";
+  }
+
+  // Fields
+  //--------------------------------------------------
+
+  private final String[] parameters;
+
+  private final String body;
+
+  private final String handle;
+
+  /**
+   * The function expression.
+   */
+  private final String definition;
+
+  // Getters
+  //--------------------------------------------------
+
+  public String[] getParameters() {
+    return parameters.clone();
+  }
+
+  public String getBody() {
+    return body;
+  }
+
+  public String getHandle() {
+    return handle;
+  }
+
+  String getDefinition() {
+    return definition;
+  }
+
+}
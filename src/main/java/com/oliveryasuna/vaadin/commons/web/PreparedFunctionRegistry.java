@@ -0,0 +1,122 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.oliveryasuna.vaadin.commons.web;
+
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.shared.Registration;
+
+import java.io.Serializable;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Tracks which {@link PreparedFunction}s, and other helper scripts, have been sent to a {@link UI}.
+ * <p>
+ * The state is discarded when the {@link UI} is detached, as the functions are lost with the page.
+ *
+ * @author Oliver Yasuna
+ * @since 3.0.0
+ */
+final class PreparedFunctionRegistry implements Serializable {
+
+  // Static fields
+  //--------------------------------------------------
+
+  private static final String DATA_KEY = PreparedFunctionRegistry.class.getName();
+
+  // Static utility methods
+  //--------------------------------------------------
+
+  /**
+   * Gets the registry of a {@link UI}, creating it if needed.
+   */
+  static PreparedFunctionRegistry get(final UI ui) {
+    PreparedFunctionRegistry registry = (PreparedFunctionRegistry)ComponentUtil.getData(ui, DATA_KEY);
+
+    if(registry == null) {
+      registry = new PreparedFunctionRegistry();
+
+      final PreparedFunctionRegistry installedRegistry = registry;
+
+      registry.detachRegistration = ui.addDetachListener(event -> {
+        installedRegistry.detachRegistration.remove();
+
+        ComponentUtil.setData(ui, DATA_KEY, null);
+      });
+
+      ComponentUtil.setData(ui, DATA_KEY, registry);
+    }
+
+    return registry;
+  }
+
+  // Constructors
+  //--------------------------------------------------
+
+  private PreparedFunctionRegistry() {
+    super();
+  }
+
+  // Fields
+  //--------------------------------------------------
+
+  /**
+   * Handles of the scripts sent to the {@link UI}.
+   */
+  private final Set<String> installedHandles = new HashSet<>();
+
+  private Registration detachRegistration;
+
+  // Methods
+  //--------------------------------------------------
+
+  /**
+   * Gets whether a function, or other script, has been sent.
+   *
+   * @param handle The handle of the script.
+   *
+   * @return {@code true}, if the script was sent; {@code false}, if it must be sent with the next call that uses it.
+   */
+  boolean isInstalled(final String handle) {
+    return installedHandles.contains(handle);
+  }
+
+  /**
+   * Marks a function, or other script, as sent.
+   * Must only be called once a call that defines the script is about to be sent, so that a call that is never sent does not leave later calls
+   * without the definition.
+   *
+   * @param handle The handle of the script.
+   */
+  void markInstalled(final String handle) {
+    installedHandles.add(handle);
+  }
+
+  /**
+   * Marks a function, or other script, as not sent, such as when the call that defined it was cancelled before it was sent.
+   * The next call that uses the script sends it again.
+   *
+   * @param handle The handle of the script.
+   */
+  void markUninstalled(final String handle) {
+    installedHandles.remove(handle);
+  }
+
+}
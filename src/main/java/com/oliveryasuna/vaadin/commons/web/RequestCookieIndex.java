@@ -0,0 +1,132 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.oliveryasuna.vaadin.commons.web;
+
+import com.vaadin.flow.server.VaadinRequest;
+
+import javax.servlet.http.Cookie;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable index of the cookies of a {@link VaadinRequest}, by name.
+ * <p>
+ * The index is built on first use and stored as a request attribute, so the cookies of a request are only scanned once.
+ *
+ * @author Oliver Yasuna
+ * @since 3.0.0
+ */
+final class RequestCookieIndex {
+
+  // Static fields
+  //--------------------------------------------------
+
+  private static final String ATTRIBUTE_NAME = RequestCookieIndex.class.getName();
+
+  private static final Cookie[] NO_COOKIES = new Cookie[0];
+
+  // Static utility methods
+  //--------------------------------------------------
+
+  /**
+   * Gets the index of a request, building it if needed.
+   */
+  static RequestCookieIndex of(final VaadinRequest request) {
+    final Object existing = request.getAttribute(ATTRIBUTE_NAME);
+
+    if(existing instanceof RequestCookieIndex) return (RequestCookieIndex)existing;
+
+    final RequestCookieIndex index = new RequestCookieIndex(request.getCookies());
+
+    request.setAttribute(ATTRIBUTE_NAME, index);
+
+    return index;
+  }
+
+  // Constructors
+  //--------------------------------------------------
+
+  private RequestCookieIndex(final Cookie[] cookies) {
+    super();
+
+    this.cookies = (cookies != null ? cookies : NO_COOKIES);
+
+    final Map<String, List<Cookie>> cookiesByName = new HashMap<>((int)(this.cookies.length / 0.75f) + 1);
+
+    for(final Cookie cookie : this.cookies) {
+      cookiesByName.computeIfAbsent(cookie.getName(), name -> new ArrayList<>(1)).add(cookie);
+    }
+
+    cookiesByName.replaceAll((name, namedCookies) -> Collections.unmodifiableList(namedCookies));
+
+    this.cookiesByName = cookiesByName;
+  }
+
+  // Fields
+  //--------------------------------------------------
+
+  /**
+   * All cookies, in request order.
+   */
+  private final Cookie[] cookies;
+
+  /**
+   * Unmodifiable lists of cookies, by name, in request order.
+   */
+  private final Map<String, List<Cookie>> cookiesByName;
+
+  // Methods
+  //--------------------------------------------------
+
+  /**
+   * Gets the first cookie with a name.
+   *
+   * @return The cookie, or {@code null}, if none was found.
+   */
+  Cookie get(final String name) {
+    final List<Cookie> namedCookies = cookiesByName.get(name);
+
+    return (namedCookies != null ? namedCookies.get(0) : null);
+  }
+
+  /**
+   * Gets all cookies with a name, as browsers send one per matching path and domain.
+   *
+   * @return An unmodifiable list of cookies, which is empty if none was found.
+   */
+  List<Cookie> getAll(final String name) {
+    return cookiesByName.getOrDefault(name, Collections.emptyList());
+  }
+
+  // Getters
+  //--------------------------------------------------
+
+  /**
+   * Gets all cookies, in request order.
+   *
+   * @return The shared array of cookies, which is empty if the request has none. Must not be modified or exposed.
+   */
+  Cookie[] getCookies() {
+    return cookies;
+  }
+
+}
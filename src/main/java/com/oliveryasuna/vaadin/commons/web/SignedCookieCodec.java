@@ -0,0 +1,181 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.oliveryasuna.vaadin.commons.web;
+
+import com.oliveryasuna.commons.language.condition.Arguments;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@link CookieCodec} that signs values with HMAC-SHA256.
+ * <p>
+ * Values are readable by the client, but cannot be changed without the key.
+ * An encoded value has the form {@code value.keyId.signature}, where the value and signature are Base64URL-encoded.
+ * The signature covers the key ID, the name of the cookie and the value.
+ * <p>
+ * Keys are identified by IDs, so they can be rotated: values are signed with the current key, and verified with the key they were signed with.
+ * Each thread reuses one {@link Mac} per key, and signatures are compared in constant time.
+ *
+ * @author Oliver Yasuna
+ * @since 3.0.0
+ */
+public final class SignedCookieCodec implements CookieCodec {
+
+  // Static fields
+  //--------------------------------------------------
+
+  private static final String ALGORITHM = "HmacSHA256";
+
+  private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+  private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+  // Static utility methods
+  //--------------------------------------------------
+
+  static void requireValidKeyIds(final Map<String, byte[]> keys, final String currentKeyId) {
+    Arguments.requireNotNull(keys);
+    Arguments.requireNotNull(currentKeyId);
+
+    for(final Map.Entry<String, byte[]> key : keys.entrySet()) {
+      Arguments.requireNotNull(key.getValue());
+
+      if(!key.getKey().matches("[A-Za-z0-9_-]+")) throw new IllegalArgumentException("Key IDs must only contain [A-Za-z0-9_-]: " + key.getKey());
+    }
+
+    if(!keys.containsKey(currentKeyId)) throw new IllegalArgumentException("Unknown current key ID: " + currentKeyId);
+  }
+
+  private static byte[] sign(final Mac mac, final String keyId, final String name, final String encodedValue) {
+    // Mac.doFinal() resets the Mac, so it can be reused.
+    mac.update(keyId.getBytes(StandardCharsets.US_ASCII));
+    mac.update((byte)0);
+    mac.update(name.getBytes(StandardCharsets.UTF_8));
+    mac.update((byte)0);
+
+    return mac.doFinal(encodedValue.getBytes(StandardCharsets.US_ASCII));
+  }
+
+  // Constructors
+  //--------------------------------------------------
+
+  /**
+   * Creates a new codec.
+   *
+   * @param keys         The keys, by ID. IDs may only contain {@code A-Z}, {@code a-z}, {@code 0-9}, {@code _} and {@code -}.
+   * @param currentKeyId The ID of the key to sign values with.
+   */
+  public SignedCookieCodec(final Map<String, byte[]> keys, final String currentKeyId) {
+    super();
+
+    requireValidKeyIds(keys, currentKeyId);
+
+    final Map<String, ThreadLocal<Mac>> macs = new HashMap<>();
+
+    for(final Map.Entry<String, byte[]> key : keys.entrySet()) {
+      final SecretKeySpec secretKey = new SecretKeySpec(key.getValue().clone(), ALGORITHM);
+
+      macs.put(key.getKey(), ThreadLocal.withInitial(() -> {
+        try {
+          final Mac mac = Mac.getInstance(ALGORITHM);
+
+          mac.init(secretKey);
+
+          return mac;
+        } catch(final GeneralSecurityException e) {
+          throw new IllegalStateException(e);
+        }
+      }));
+    }
+
+    // Fail early on invalid keys.
+    macs.values().forEach(ThreadLocal::get);
+
+    this.macs = macs;
+    this.currentKeyId = currentKeyId;
+  }
+
+  // Fields
+  //--------------------------------------------------
+
+  private final Map<String, ThreadLocal<Mac>> macs;
+
+  private final String currentKeyId;
+
+  // Overrides
+  //--------------------------------------------------
+
+  // CookieCodec
+  //
+
+  @Override
+  public String encode(final String name, final String value) {
+    Arguments.requireNotNull(name);
+    Arguments.requireNotNull(value);
+
+    final String encodedValue = ENCODER.encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    final byte[] signature = sign(macs.get(currentKeyId).get(), currentKeyId, name, encodedValue);
+
+    return (encodedValue + '.' + currentKeyId + '.' + ENCODER.encodeToString(signature));
+  }
+
+  @Override
+  public String decode(final String name, final String encodedValue) {
+    Arguments.requireNotNull(name);
+
+    if(encodedValue == null) return null;
+
+    final int firstDot = encodedValue.indexOf('.');
+    final int lastDot = encodedValue.lastIndexOf('.');
+
+    if(firstDot < 0 || lastDot == firstDot) return null;
+
+    final String keyId = encodedValue.substring(firstDot + 1, lastDot);
+    final ThreadLocal<Mac> mac = macs.get(keyId);
+
+    if(mac == null) return null;
+
+    try {
+      final String value = encodedValue.substring(0, firstDot);
+      final byte[] expectedSignature = sign(mac.get(), keyId, name, value);
+
+      if(!MessageDigest.isEqual(expectedSignature, DECODER.decode(encodedValue.substring(lastDot + 1)))) return null;
+
+      return new String(DECODER.decode(value), StandardCharsets.UTF_8);
+    } catch(final IllegalArgumentException e) {
+      // Malformed Base64.
+      return null;
+    }
+  }
+
+  // Getters
+  //--------------------------------------------------
+
+  public String getCurrentKeyId() {
+    return currentKeyId;
+  }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.oliveryasuna.vaadin.commons.component;
+
+import org.jsoup.safety.Whitelist;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HtmlFragmentTest {
+
+  private static final String IMAGE = "<img src=\"https://example.com/a.png\">";
+
+  @BeforeEach
+  void clearCache() {
+    HtmlFragment.clearCache();
+  }
+
+  @Test
+  void stripsScriptsAndEventHandlers() {
+    final HtmlFragment fragment = new HtmlFragment("<p onclick=\"alert(1)\">text</p><script>alert(2)</script>");
+
+    assertEquals("<p>text</p>", fragment.getHtml());
+  }
+
+  @Test
+  void sanitizesWithCustomWhitelist() {
+    final HtmlFragment fragment = new HtmlFragment(IMAGE);
+
+    assertTrue(fragment.getHtml().contains("<img"));
+
+    fragment.setHtml(IMAGE + "<b>bold</b>", Whitelist.basic());
+
+    assertEquals("<b>bold</b>", fragment.getHtml());
+  }
+
+  @Test
+  void clearsOnNullOrEmptyMarkup() {
+    final HtmlFragment fragment = new HtmlFragment("<p>text</p>");
+
+    fragment.setHtml(null);
+
+    assertFalse(fragment.getElement().hasProperty("innerHTML"));
+    assertEquals("", fragment.getHtml());
+
+    fragment.setHtml("<p>text</p>");
+    fragment.setHtml("", Whitelist.basic());
+
+    assertFalse(fragment.getElement().hasProperty("innerHTML"));
+  }
+
+  @Test
+  void sharesCachedMarkup() {
+    final String html = "<p>shared</p>";
+
+    assertSame(new HtmlFragment(html, true).getHtml(), new HtmlFragment(html, true).getHtml());
+    assertNotSame(new HtmlFragment(html).getHtml(), new HtmlFragment(html).getHtml());
+  }
+
+  @Test
+  void boundsCache() {
+    final String first = new HtmlFragment("<p>0</p>", true).getHtml();
+
+    for(int i = 1; i <= HtmlFragment.CACHE_SIZE; i++) new HtmlFragment("<p>" + i + "</p>", true);
+
+    assertEquals(HtmlFragment.CACHE_SIZE, HtmlFragment.cacheSize());
+    // The first markup was evicted, so it is sanitized again.
+    assertNotSame(first, new HtmlFragment("<p>0</p>", true).getHtml());
+  }
+
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.oliveryasuna.vaadin.commons.element;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.Tag;
+import com.vaadin.flow.dom.Element;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link ElementUtils#setPropertyBeanCached(Element, String, Object)} with {@link ElementUtils#setPropertyBean(Element, String, Object)}, setting
+ * a bean on each of {@code elementCount} elements, as when pushing beans into the elements of one response.
+ * <p>
+ * With {@code beans} {@code same}, every operation sets an equal bean again, which the cached method skips: by the remembered bean for elements of
+ * components, and by comparing the converted JSON for other elements.
+ * With {@code changed}, operations alternate between two beans, so every call converts and sets the property.
+ * <p>
+ * Run {@link #main(String[])} from an IDE, or with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.oliveryasuna.vaadin.commons.element.BeanPropertyBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BeanPropertyBenchmark {
+
+  public static void main(final String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(BeanPropertyBenchmark.class.getSimpleName()).build()).run();
+  }
+
+  @Param({"same", "changed"})
+  public String beans;
+
+  @Param({"100"})
+  public int elementCount;
+
+  private Element[] elements;
+
+  private Element[] componentElements;
+
+  private Bean[] beanPair;
+
+  private int operationCount;
+
+  @Setup
+  public void setUp() {
+    elements = new Element[elementCount];
+    componentElements = new Element[elementCount];
+
+    for(int i = 0; i < elementCount; i++) {
+      elements[i] = new Element("div");
+      componentElements[i] = new BenchmarkComponent().getElement();
+    }
+
+    final Bean first = new Bean("first", 1, 0.25, true, List.of("a", "b", "c"));
+    final Bean second = new Bean("second", 2, 0.75, false, List.of("d", "e"));
+
+    beanPair = new Bean[] {first, beans.equals("same") ? first : second};
+  }
+
+  @Benchmark
+  public void setPropertyBean() {
+    final Bean bean = nextBean();
+
+    for(final Element element : elements) ElementUtils.setPropertyBean(element, "bean", bean);
+  }
+
+  @Benchmark
+  public void setPropertyBeanCached() {
+    final Bean bean = nextBean();
+
+    for(final Element element : elements) ElementUtils.setPropertyBeanCached(element, "bean", bean);
+  }
+
+  @Benchmark
+  public void setPropertyBeanCachedOfComponents() {
+    final Bean bean = nextBean();
+
+    for(final Element element : componentElements) ElementUtils.setPropertyBeanCached(element, "bean", bean);
+  }
+
+  /**
+   * Gets a copy of the next bean, as callers usually create a new bean rather than reusing one.
+   */
+  private Bean nextBean() {
+    final Bean bean = beanPair[operationCount++ & 1];
+
+    return new Bean(bean.getName(), bean.getCount(), bean.getRatio(), bean.isEnabled(), bean.getTags());
+  }
+
+  @Tag("benchmark-component")
+  public static final class BenchmarkComponent extends Component {
+
+    public BenchmarkComponent() {
+      super();
+    }
+
+  }
+
+  public static final class Bean {
+
+    public Bean(final String name, final int count, final double ratio, final boolean enabled, final List<String> tags) {
+      super();
+
+      this.name = name;
+      this.count = count;
+      this.ratio = ratio;
+      this.enabled = enabled;
+      this.tags = tags;
+    }
+
+    private final String name;
+
+    private final int count;
+
+    private final double ratio;
+
+    private final boolean enabled;
+
+    private final List<String> tags;
+
+    public String getName() {
+      return name;
+    }
+
+    public int getCount() {
+      return count;
+    }
+
+    public double getRatio() {
+      return ratio;
+    }
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public List<String> getTags() {
+      return tags;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+      if(this == other) return true;
+      if(!(other instanceof Bean)) return false;
+
+      final Bean bean = (Bean)other;
+
+      return (count == bean.count && Double.compare(ratio, bean.ratio) == 0 && enabled == bean.enabled && Objects.equals(name, bean.name)
+          && Objects.equals(tags, bean.tags));
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(name, count, ratio, enabled, tags);
+    }
+
+  }
+
+}
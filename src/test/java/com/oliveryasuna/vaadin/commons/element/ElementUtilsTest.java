@@ -0,0 +1,279 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.oliveryasuna.vaadin.commons.element;
+
+import com.github.mvysny.kaributesting.v10.MockVaadin;
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.Tag;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.internal.JsonUtils;
+import elemental.json.JsonObject;
+import elemental.json.JsonValue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ElementUtilsTest {
+
+  /**
+   * Collects, and so clears, the pending changes of the current {@link UI}.
+   *
+   * @return The number of changes that would be sent to the client.
+   */
+  private static int collectChangeCount() {
+    final AtomicInteger changeCount = new AtomicInteger();
+
+    UI.getCurrent().getInternals().getStateTree().collectChanges(change -> changeCount.incrementAndGet());
+
+    return changeCount.get();
+  }
+
+  private static Element attachComponent() {
+    final Element componentElement = new TestComponent().getElement();
+
+    UI.getCurrent().getElement().appendChild(componentElement);
+
+    return componentElement;
+  }
+
+  private Element element;
+
+  @BeforeEach
+  void setUp() {
+    MockVaadin.setup();
+
+    element = new Element("div");
+
+    UI.getCurrent().getElement().appendChild(element);
+
+    collectChangeCount();
+  }
+
+  @AfterEach
+  void tearDown() {
+    MockVaadin.tearDown();
+  }
+
+  @Test
+  void reapplyingUnchangedValuesProducesNoChanges() {
+    final Map<String, Object> attributes = Map.of("title", "Title", "hidden", true);
+    final Map<String, Object> properties = Map.of("label", "Label", "checked", false, "count", 3, "items", List.of("a", "b"),
+        "options", Map.of("size", 2));
+
+    assertEquals(7, ElementUtils.apply(element, attributes, properties));
+    assertNotEquals(0, collectChangeCount());
+
+    assertEquals(0, ElementUtils.apply(element, attributes, properties));
+    assertEquals(0, collectChangeCount());
+  }
+
+  @Test
+  void appliesOnlyChangedValues() {
+    ElementUtils.apply(element, Map.of("title", "Title", "role", "button"), Map.of("label", "Label", "count", 3));
+    collectChangeCount();
+
+    assertEquals(2, ElementUtils.apply(element, Map.of("title", "Other", "role", "button"), Map.of("label", "Label", "count", 4)));
+    assertEquals(2, collectChangeCount());
+    assertEquals("Other", element.getAttribute("title"));
+    assertEquals(4.0, element.getProperty("count", 0.0));
+  }
+
+  @Test
+  void comparesNumbersByValue() {
+    element.setProperty("count", 3.0);
+    collectChangeCount();
+
+    assertEquals(0, ElementUtils.apply(element, null, Map.of("count", 3)));
+    assertEquals(0, ElementUtils.apply(element, null, Map.of("count", 3L)));
+    assertEquals(0, collectChangeCount());
+  }
+
+  @Test
+  void comparesJsonByContent() {
+    ElementUtils.apply(element, null, Map.of("items", List.of(1, 2, 3)));
+    collectChangeCount();
+
+    assertEquals(0, ElementUtils.apply(element, null, Map.of("items", List.of(1, 2, 3))));
+    assertEquals(0, collectChangeCount());
+
+    assertEquals(1, ElementUtils.apply(element, null, Map.of("items", List.of(1, 2))));
+    assertEquals(1, collectChangeCount());
+  }
+
+  @Test
+  void removesOnlyPresentValues() {
+    element.setAttribute("title", "Title");
+    element.setProperty("label", "Label");
+    collectChangeCount();
+
+    final Map<String, Object> attributes = new HashMap<>();
+    final Map<String, Object> properties = new HashMap<>();
+
+    attributes.put("title", null);
+    attributes.put("hidden", false);
+    properties.put("label", null);
+    properties.put("value", null);
+
+    assertEquals(2, ElementUtils.apply(element, attributes, properties));
+    assertEquals(2, collectChangeCount());
+    assertFalse(element.hasAttribute("title"));
+    assertFalse(element.hasProperty("label"));
+
+    assertEquals(0, ElementUtils.apply(element, attributes, properties));
+    assertEquals(0, collectChangeCount());
+  }
+
+  @Test
+  void setPropertyBeanCachedSetsSameJsonAsSetPropertyBean() {
+    final Bean bean = new Bean("name", 3);
+
+    ElementUtils.setPropertyBeanCached(element, "bean", bean);
+
+    assertTrue(JsonUtils.jsonEquals(JsonUtils.beanToJson(bean), (JsonValue)element.getPropertyRaw("bean")));
+  }
+
+  @Test
+  void setPropertyBeanCachedSkipsEqualBeanOfComponent() {
+    final Element componentElement = attachComponent();
+
+    ElementUtils.setPropertyBeanCached(componentElement, "bean", new Bean("name", 3));
+
+    final Serializable json = componentElement.getPropertyRaw("bean");
+
+    collectChangeCount();
+
+    ElementUtils.setPropertyBeanCached(componentElement, "bean", new Bean("name", 3));
+
+    assertSame(json, componentElement.getPropertyRaw("bean"));
+    assertEquals(0, collectChangeCount());
+
+    ElementUtils.setPropertyBeanCached(componentElement, "bean", new Bean("name", 4));
+
+    assertEquals(4.0, ((JsonObject)componentElement.getPropertyRaw("bean")).getNumber("count"));
+    assertEquals(1, collectChangeCount());
+  }
+
+  @Test
+  void setPropertyBeanCachedSkipsEqualJsonOfElement() {
+    ElementUtils.setPropertyBeanCached(element, "bean", new Bean("name", 3));
+    collectChangeCount();
+
+    ElementUtils.setPropertyBeanCached(element, "bean", new Bean("name", 3));
+
+    assertEquals(0, collectChangeCount());
+  }
+
+  @Test
+  void setPropertyBeanCachedDetectsPropertySetOtherwise() {
+    final Element componentElement = attachComponent();
+    final Bean bean = new Bean("name", 3);
+
+    ElementUtils.setPropertyBeanCached(componentElement, "bean", bean);
+    componentElement.setProperty("bean", "other");
+
+    ElementUtils.setPropertyBeanCached(componentElement, "bean", bean);
+
+    assertTrue(JsonUtils.jsonEquals(JsonUtils.beanToJson(bean), (JsonValue)componentElement.getPropertyRaw("bean")));
+  }
+
+  @Test
+  void setPropertyBeanCachedRemovesNull() {
+    final Element componentElement = attachComponent();
+
+    ElementUtils.setPropertyBeanCached(componentElement, "bean", new Bean("name", 3));
+    ElementUtils.setPropertyBeanCached(componentElement, "bean", null);
+
+    assertFalse(componentElement.hasProperty("bean"));
+  }
+
+  @Tag("test-component")
+  private static final class TestComponent extends Component {
+
+    private TestComponent() {
+      super();
+    }
+
+  }
+
+  public static final class Bean {
+
+    public Bean() {
+      super();
+    }
+
+    Bean(final String name, final int count) {
+      super();
+
+      this.name = name;
+      this.count = count;
+    }
+
+    private String name;
+
+    private int count;
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(final String name) {
+      this.name = name;
+    }
+
+    public int getCount() {
+      return count;
+    }
+
+    public void setCount(final int count) {
+      this.count = count;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+      if(this == other) return true;
+      if(!(other instanceof Bean)) return false;
+
+      final Bean bean = (Bean)other;
+
+      return (count == bean.count && Objects.equals(name, bean.name));
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(name, count);
+    }
+
+  }
+
+}
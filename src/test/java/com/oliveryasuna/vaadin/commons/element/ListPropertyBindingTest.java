@@ -0,0 +1,126 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.oliveryasuna.vaadin.commons.element;
+
+import com.github.mvysny.kaributesting.v10.MockVaadin;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.internal.UIInternals;
+import com.vaadin.flow.dom.Element;
+import elemental.json.JsonValue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ListPropertyBindingTest {
+
+  /**
+   * Runs the pending flush of the binding.
+   *
+   * @return The JSON of the value sent by each call, which is the whole array or the splices.
+   */
+  private static List<String> flush() {
+    final UIInternals internals = UI.getCurrent().getInternals();
+
+    internals.getStateTree().runExecutionsBeforeClientResponse();
+
+    return internals.dumpPendingJavaScriptInvocations().stream()
+        .map(invocation -> ((JsonValue)invocation.getInvocation().getParameters().get(1)).toJson())
+        .collect(Collectors.toList());
+  }
+
+  private ListPropertyBinding<Integer> list;
+
+  @BeforeEach
+  void setUp() {
+    MockVaadin.setup();
+
+    final Element element = new Element("div");
+
+    list = new ListPropertyBinding<>(element, "items", Integer.class, IntStream.range(0, 10).boxed().collect(Collectors.toList()));
+
+    UI.getCurrent().getElement().appendChild(element);
+
+    flush();
+  }
+
+  @AfterEach
+  void tearDown() {
+    MockVaadin.tearDown();
+  }
+
+  @Test
+  void sendsWholeArrayWhenAttached() {
+    final Element element = new Element("div");
+
+    new ListPropertyBinding<>(element, "items", Integer.class, List.of(1, 2));
+
+    UI.getCurrent().getElement().appendChild(element);
+
+    assertEquals(List.of("[1,2]"), flush());
+  }
+
+  @Test
+  void mergesConsecutiveInsertions() {
+    list.add(10);
+    list.add(11);
+    list.addAll(List.of(12, 13));
+
+    assertEquals(List.of("[[10,0,[10,11,12,13]]]"), flush());
+  }
+
+  @Test
+  void mergesReplacementsOfInsertedItems() {
+    list.add(3, 30);
+    list.add(4, 40);
+    list.set(3, 31);
+
+    assertEquals(List.of("[[3,0,[31,40]]]"), flush());
+  }
+
+  @Test
+  void keepsOtherSplicesApart() {
+    list.set(0, 100);
+    list.remove(5);
+    list.add(0, -1);
+
+    assertEquals(List.of("[[0,1,[100]],[5,1,[]],[0,0,[-1]]]"), flush());
+  }
+
+  @Test
+  void sendsWholeArrayWhenSplicesOutweighList() {
+    for(int i = 0; i < 10; i += 2) list.set(i, 100 + i);
+
+    list.set(9, 109);
+
+    assertEquals(List.of("[100,1,102,3,104,5,106,7,108,109]"), flush());
+  }
+
+  @Test
+  void sendsNothingWithoutChanges() {
+    assertEquals(List.of(), flush());
+  }
+
+}
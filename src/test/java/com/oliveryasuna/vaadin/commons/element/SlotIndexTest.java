@@ -0,0 +1,87 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.oliveryasuna.vaadin.commons.element;
+
+import com.vaadin.flow.dom.Element;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlotIndexTest {
+
+  @Test
+  void indexesSlottedChildren() {
+    final Element parent = new Element("div");
+    final Element prefix = new Element("span");
+    final Element suffix = new Element("span");
+    final SlotIndex index = new SlotIndex(parent);
+
+    index.add("prefix", prefix);
+    index.add("suffix", suffix);
+
+    assertEquals(List.of(prefix), List.copyOf(index.getSlotted("prefix")));
+    assertEquals(List.of(suffix), List.copyOf(index.getSlotted("suffix")));
+    assertTrue(index.getSlotted("other").isEmpty());
+  }
+
+  @Test
+  void refreshFindsChildMovedWhileAnotherIsAdded() {
+    final Element parent = new Element("div");
+    final Element other = new Element("div");
+    final Element moved = new Element("span");
+    final Element added = new Element("span");
+    final SlotIndex index = new SlotIndex(parent);
+
+    index.add("prefix", moved);
+
+    // The number of children does not change.
+    other.appendChild(moved);
+    added.setAttribute("slot", "prefix");
+    parent.appendChild(added);
+
+    index.refresh();
+
+    assertEquals(List.of(added), List.copyOf(index.getSlotted("prefix")));
+  }
+
+  @Test
+  void clearSlotLeavesMovedChildren() {
+    final Element parent = new Element("div");
+    final Element other = new Element("div");
+    final Element moved = new Element("span");
+    final Element kept = new Element("span");
+    final SlotIndex index = new SlotIndex(parent);
+
+    index.add("prefix", moved, kept);
+
+    other.appendChild(moved);
+    parent.appendChild(new Element("span"));
+
+    index.clearSlot("prefix");
+
+    assertEquals(other, moved.getParent());
+    assertEquals(1, parent.getChildCount());
+    assertTrue(index.getSlotted("prefix").isEmpty());
+  }
+
+}
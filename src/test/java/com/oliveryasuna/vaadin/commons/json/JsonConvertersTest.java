@@ -0,0 +1,256 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.oliveryasuna.vaadin.commons.json;
+
+import elemental.json.Json;
+import elemental.json.JsonType;
+import elemental.json.JsonValue;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JsonConvertersTest {
+
+  private static <T> T roundTrip(final Class<T> type, final T value) {
+    final JsonConverter<T> converter = JsonConverters.forClass(type);
+
+    return converter.fromJson(Json.parse(converter.toJson(value).toJson()));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T roundTrip(final Type type, final T value) {
+    final JsonConverter<T> converter = (JsonConverter<T>)JsonConverters.forType(type);
+
+    return converter.fromJson(Json.parse(converter.toJson(value).toJson()));
+  }
+
+  @Test
+  void cachesConverterPerClass() {
+    assertSame(JsonConverters.forClass(Bean.class), JsonConverters.forClass(Bean.class));
+  }
+
+  @Test
+  void roundTripsPrimitivesAndWrappers() {
+    assertEquals(42, roundTrip(int.class, 42));
+    assertEquals((short)-7, roundTrip(Short.class, (short)-7));
+    assertEquals((byte)3, roundTrip(byte.class, (byte)3));
+    assertEquals(1.5f, roundTrip(Float.class, 1.5f));
+    assertEquals(0.1, roundTrip(double.class, 0.1));
+    assertEquals(true, roundTrip(Boolean.class, true));
+    assertEquals('x', roundTrip(char.class, 'x'));
+    assertEquals("a \"quoted\" string", roundTrip(String.class, "a \"quoted\" string"));
+    assertNull(roundTrip(Integer.class, null));
+  }
+
+  @Test
+  void keepsSafeLongsAsNumbers() {
+    final long value = (1L << 53) - 1;
+    final JsonValue json = JsonConverters.forClass(long.class).toJson(value);
+
+    assertEquals(JsonType.NUMBER, json.getType());
+    assertEquals(value, roundTrip(long.class, value));
+    assertEquals(-value, roundTrip(Long.class, -value));
+  }
+
+  @Test
+  void keepsLargeLongsExact() {
+    final JsonValue json = JsonConverters.forClass(Long.class).toJson(Long.MAX_VALUE);
+
+    assertEquals(JsonType.STRING, json.getType());
+    assertEquals(Long.MAX_VALUE, roundTrip(Long.class, Long.MAX_VALUE));
+    assertEquals(Long.MIN_VALUE, roundTrip(long.class, Long.MIN_VALUE));
+    assertEquals((1L << 53) + 1, roundTrip(long.class, (1L << 53) + 1));
+  }
+
+  @Test
+  void keepsBigNumbersExact() {
+    final BigDecimal decimal = new BigDecimal("12345678901234567890.000000000000000001");
+    final BigInteger integer = new BigInteger("-123456789012345678901234567890");
+
+    assertEquals(decimal, roundTrip(BigDecimal.class, decimal));
+    assertEquals(integer, roundTrip(BigInteger.class, integer));
+  }
+
+  @Test
+  void readsBigNumbersFromJsonNumbers() {
+    assertEquals(new BigDecimal("2.5"), JsonConverters.forClass(BigDecimal.class).fromJson(Json.create(2.5)));
+    assertEquals(BigInteger.valueOf(1024), JsonConverters.forClass(BigInteger.class).fromJson(Json.create(1024)));
+  }
+
+  @Test
+  void rejectsUnsupportedNumberTypes() {
+    assertThrows(IllegalArgumentException.class, () -> JsonConverters.forClass(AtomicInteger.class));
+    assertThrows(IllegalArgumentException.class, () -> JsonConverters.forType(AtomicInteger.class));
+  }
+
+  @Test
+  void roundTripsEnumsByName() {
+    assertEquals(JsonType.BOOLEAN, roundTrip(JsonType.class, JsonType.BOOLEAN));
+    assertEquals("\"NULL\"", JsonConverters.forClass(JsonType.class).toJson(JsonType.NULL).toJson());
+  }
+
+  @Test
+  void roundTripsArrays() {
+    assertArrayEquals(new int[] {1, 2, 3}, roundTrip(int[].class, new int[] {1, 2, 3}));
+    assertArrayEquals(new String[] {"a", null, "c"}, roundTrip(String[].class, new String[] {"a", null, "c"}));
+  }
+
+  @Test
+  void roundTripsGenericCollectionsAndMaps() throws NoSuchFieldException {
+    final Type listType = Holder.class.getDeclaredField("beans").getGenericType();
+    final Type mapType = Holder.class.getDeclaredField("counts").getGenericType();
+
+    final List<Bean> beans = roundTrip(listType, List.of(new Bean("a", 1), new Bean("b", 2)));
+    final Map<String, Long> counts = roundTrip(mapType, new TreeMap<>(Map.of("x", 1L, "y", Long.MAX_VALUE)));
+
+    assertEquals(ArrayList.class, beans.getClass());
+    assertEquals(List.of(new Bean("a", 1), new Bean("b", 2)), beans);
+    assertEquals(TreeMap.class, counts.getClass());
+    assertEquals(Map.of("x", 1L, "y", Long.MAX_VALUE), counts);
+  }
+
+  @Test
+  void roundTripsBeans() {
+    final Bean bean = new Bean("name", 7);
+
+    bean.setChildren(List.of(new Bean("child", 8)));
+
+    assertEquals(bean, roundTrip(Bean.class, bean));
+  }
+
+  @Test
+  void convertsObjectsByRuntimeClass() {
+    final JsonConverter<Object> converter = JsonConverters.forClass(Object.class);
+
+    final Map<?, ?> bean = (Map<?, ?>)converter.fromJson(converter.toJson(new Bean("n", 3)));
+
+    assertEquals("n", bean.get("name"));
+    assertEquals(3.0, bean.get("count"));
+    assertEquals(List.of("a", 1.0, true), converter.fromJson(Json.parse("[\"a\",1,true]")));
+    assertEquals(Map.of("k", "v"), converter.fromJson(Json.parse("{\"k\":\"v\"}")));
+  }
+
+  @Test
+  void convertsImmutableCollectionsAndMapsToJson() {
+    final JsonConverter<Object> converter = JsonConverters.forClass(Object.class);
+
+    assertEquals("[1,2]", converter.toJson(List.of(1, 2)).toJson());
+    assertEquals("[\"a\"]", converter.toJson(Collections.singletonList("a")).toJson());
+    assertEquals("[\"a\",\"b\"]", converter.toJson(Arrays.asList("a", "b")).toJson());
+    assertEquals("{\"k\":\"v\"}", converter.toJson(Map.of("k", "v")).toJson());
+    assertEquals("{\"k\":1}", converter.toJson(Collections.unmodifiableMap(new TreeMap<>(Map.of("k", 1)))).toJson());
+  }
+
+  @Test
+  void readsNonInstantiableCollectionsAndMapsIntoDefaults() {
+    assertEquals(ArrayList.class, roundTrip(List.of(1).getClass(), List.of(1)).getClass());
+    assertEquals(LinkedHashSet.class, roundTrip(Set.of("a").getClass(), Set.of("a")).getClass());
+    assertEquals(LinkedHashMap.class, roundTrip(Map.of("k", "v").getClass(), Map.of("k", "v")).getClass());
+    assertEquals(Map.of("k", "v"), roundTrip(Map.of("k", "v").getClass(), Map.of("k", "v")));
+  }
+
+  static final class Holder {
+
+    List<Bean> beans;
+
+    TreeMap<String, Long> counts;
+
+  }
+
+  public static final class Bean {
+
+    public Bean() {
+      super();
+    }
+
+    Bean(final String name, final int count) {
+      super();
+
+      this.name = name;
+      this.count = count;
+    }
+
+    private String name;
+
+    private int count;
+
+    private List<Bean> children;
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(final String name) {
+      this.name = name;
+    }
+
+    public int getCount() {
+      return count;
+    }
+
+    public void setCount(final int count) {
+      this.count = count;
+    }
+
+    public List<Bean> getChildren() {
+      return children;
+    }
+
+    public void setChildren(final List<Bean> children) {
+      this.children = children;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+      if(this == other) return true;
+      if(!(other instanceof Bean)) return false;
+
+      final Bean bean = (Bean)other;
+
+      return (count == bean.count && Objects.equals(name, bean.name) && Objects.equals(children, bean.children));
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(name, count, children);
+    }
+
+  }
+
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.oliveryasuna.vaadin.commons.web;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the server-side work of {@link BrowserStorage#setItemCompressed(com.vaadin.flow.component.UI, WebStorageObject, String, String)} and
+ * {@link BrowserStorage#getItemCompressed(com.vaadin.flow.component.UI, WebStorageObject, String)} on table state of {@code valueLength} characters:
+ * column settings, filters, and the IDs of selected and expanded rows, as a grid would persist them.
+ * <p>
+ * Without compression, values are stored as-is, so the only cost is the length of the stored value.
+ * {@link #main(String[])} prints the stored length with and without compression before running the benchmarks.
+ * Run it from an IDE, or with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.oliveryasuna.vaadin.commons.web.BrowserStorageCompressionBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BrowserStorageCompressionBenchmark {
+
+  public static void main(final String[] args) throws RunnerException {
+    for(final int valueLength : new int[] {20_000, 200_000}) {
+      final String value = tableState(valueLength);
+      final String compressed = BrowserStorage.compressValue(value);
+
+      System.out.printf("Table state of %d characters: stored as %d characters compressed (%.1f%%).%n",
+          value.length(), compressed.length(), 100.0 * compressed.length() / value.length());
+    }
+
+    new Runner(new OptionsBuilder().include(BrowserStorageCompressionBenchmark.class.getSimpleName()).build()).run();
+  }
+
+  /**
+   * Generates table state of at least {@code length} characters, with the same random values on every call.
+   */
+  private static String tableState(final int length) {
+    final Random random = new Random(42);
+    final StringBuilder builder = new StringBuilder(length + 256);
+
+    builder.append("{\"columns\":[");
+
+    for(int i = 0; i < 40; i++) {
+      if(i > 0) builder.append(',');
+
+      builder.append("{\"key\":\"column").append(i)
+          .append("\",\"width\":").append(80 + random.nextInt(240))
+          .append(",\"visible\":").append(random.nextInt(5) > 0)
+          .append(",\"frozen\":").append(i < 2)
+          .append(",\"sort\":").append(i % 7 == 0 ? "\"ascending\"" : "null")
+          .append(",\"filter\":").append(i % 3 == 0 ? "\"value " + random.nextInt(1000) + "\"" : "null")
+          .append('}');
+    }
+
+    builder.append("],\"selected\":[");
+
+    // Row IDs are increasing, with random gaps, as keys of a sorted table would be.
+    int rowId = 0;
+
+    for(int i = 0; builder.length() < length * 3 / 4; i++) {
+      if(i > 0) builder.append(',');
+
+      rowId += 1 + random.nextInt(20);
+
+      builder.append("\"row-").append(rowId).append('"');
+    }
+
+    builder.append("],\"expanded\":[");
+
+    rowId = 0;
+
+    for(int i = 0; builder.length() < length; i++) {
+      if(i > 0) builder.append(',');
+
+      rowId += 1 + random.nextInt(50);
+
+      builder.append(rowId);
+    }
+
+    return builder.append("]}").toString();
+  }
+
+  @Param({"20000", "200000"})
+  public int valueLength;
+
+  private String value;
+
+  private String compressedValue;
+
+  @Setup
+  public void setUp() {
+    value = tableState(valueLength);
+    compressedValue = BrowserStorage.compressValue(value);
+  }
+
+  @Benchmark
+  public String compress() {
+    return BrowserStorage.compressValue(value);
+  }
+
+  @Benchmark
+  public String decompress() {
+    return BrowserStorage.decompressValue(compressedValue, BrowserStorage.DEFAULT_MAX_DECOMPRESSED_SIZE);
+  }
+
+}
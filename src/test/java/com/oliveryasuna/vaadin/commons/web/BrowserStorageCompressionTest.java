@@ -0,0 +1,104 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.oliveryasuna.vaadin.commons.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Base64;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BrowserStorageCompressionTest {
+
+  private static String gzipValue(final byte[] bytes) throws IOException {
+    final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+
+    try(final GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+      gzip.write(bytes);
+    }
+
+    return BrowserStorage.COMPRESSED_VALUE_HEADER + Base64.getEncoder().encodeToString(compressed.toByteArray());
+  }
+
+  @Test
+  void roundTripsCompressibleValue() {
+    final String value = "{\"column\":\"name\",\"width\":120}".repeat(100);
+    final String compressed = BrowserStorage.compressValue(value);
+
+    assertEquals(BrowserStorage.COMPRESSED_VALUE_HEADER, compressed.charAt(0));
+    assertTrue(compressed.length() < value.length());
+    assertEquals(value, BrowserStorage.decompressValue(compressed, BrowserStorage.DEFAULT_MAX_DECOMPRESSED_SIZE));
+  }
+
+  @Test
+  void roundTripsNonAsciiValue() {
+    final String value = "Größe – 大小 – 😀 ".repeat(200);
+
+    assertEquals(value, BrowserStorage.decompressValue(BrowserStorage.compressValue(value), BrowserStorage.DEFAULT_MAX_DECOMPRESSED_SIZE));
+  }
+
+  @Test
+  void keepsShortValueUncompressed() {
+    final String value = "short";
+
+    assertSame(value, BrowserStorage.compressValue(value));
+    assertSame(value, BrowserStorage.decompressValue(value, BrowserStorage.DEFAULT_MAX_DECOMPRESSED_SIZE));
+  }
+
+  @Test
+  void passesThroughNull() {
+    assertNull(BrowserStorage.compressValue(null));
+    assertNull(BrowserStorage.decompressValue(null, BrowserStorage.DEFAULT_MAX_DECOMPRESSED_SIZE));
+  }
+
+  @Test
+  void returnsMalformedValueAsIs() {
+    final String notBase64 = BrowserStorage.COMPRESSED_VALUE_HEADER + "not base64!";
+    final String notGzip = BrowserStorage.COMPRESSED_VALUE_HEADER + Base64.getEncoder().encodeToString(new byte[]{1, 2, 3});
+
+    assertSame(notBase64, BrowserStorage.decompressValue(notBase64, BrowserStorage.DEFAULT_MAX_DECOMPRESSED_SIZE));
+    assertSame(notGzip, BrowserStorage.decompressValue(notGzip, BrowserStorage.DEFAULT_MAX_DECOMPRESSED_SIZE));
+  }
+
+  @Test
+  void rejectsValueDecompressingBeyondLimit() throws IOException {
+    // About 10 KB compressed, 10 MB decompressed.
+    final String bomb = gzipValue(new byte[10 * 1024 * 1024]);
+
+    assertTrue(bomb.length() < 64 * 1024);
+    assertThrows(UncheckedIOException.class, () -> BrowserStorage.decompressValue(bomb, 1024 * 1024));
+  }
+
+  @Test
+  void acceptsValueAtLimit() throws IOException {
+    final String value = gzipValue(new byte[4096]);
+
+    assertEquals(4096, BrowserStorage.decompressValue(value, 4096).length());
+    assertThrows(UncheckedIOException.class, () -> BrowserStorage.decompressValue(value, 4095));
+  }
+
+}
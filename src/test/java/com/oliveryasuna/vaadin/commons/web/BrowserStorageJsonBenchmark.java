@@ -0,0 +1,214 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.oliveryasuna.vaadin.commons.web;
+
+import com.oliveryasuna.vaadin.commons.json.JsonConverter;
+import com.oliveryasuna.vaadin.commons.json.JsonConverters;
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the conversion done by {@link BrowserStorage#setItemJson(com.vaadin.flow.component.UI, WebStorageObject, String, Object)} and
+ * {@link BrowserStorage#getItemJson(com.vaadin.flow.component.UI, WebStorageObject, String, Class)} with hand-written serialization of the same bean, as
+ * callers wrote it before those methods existed.
+ * <p>
+ * Only the server-side conversion is measured: the round trip to the browser is the same either way.
+ * The hand-written serialization appends the JSON to a {@link StringBuilder}, and the hand-written deserialization reads the fields of the parsed
+ * {@link JsonObject} by name.
+ * <p>
+ * Run {@link #main(String[])} from an IDE, or with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.oliveryasuna.vaadin.commons.web.BrowserStorageJsonBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BrowserStorageJsonBenchmark {
+
+  public static void main(final String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(BrowserStorageJsonBenchmark.class.getSimpleName()).build()).run();
+  }
+
+  private static void appendString(final StringBuilder builder, final String value) {
+    builder.append('"');
+
+    for(int i = 0; i < value.length(); i++) {
+      final char c = value.charAt(i);
+
+      if(c == '"' || c == '\\') builder.append('\\').append(c);
+      else if(c < 0x20) builder.append(String.format("\\u%04x", (int)c));
+      else builder.append(c);
+    }
+
+    builder.append('"');
+  }
+
+  @Param({"4", "256"})
+  public int tagCount;
+
+  private Bean bean;
+
+  private String json;
+
+  @Setup
+  public void setUp() {
+    final List<String> tags = new ArrayList<>(tagCount);
+
+    for(int i = 0; i < tagCount; i++) tags.add("tag-" + i);
+
+    bean = new Bean();
+    bean.setName("settings \"main\"");
+    bean.setCount(42);
+    bean.setRatio(0.75);
+    bean.setEnabled(true);
+    bean.setTags(tags);
+
+    json = setItemJsonConverter();
+  }
+
+  @Benchmark
+  public String setItemJsonConverter() {
+    return JsonConverters.forClass(Object.class).toJson(bean).toJson();
+  }
+
+  @Benchmark
+  public String setItemJsonHandWritten() {
+    final StringBuilder builder = new StringBuilder(64 + 16 * bean.getTags().size());
+
+    builder.append("{\"name\":");
+    appendString(builder, bean.getName());
+    builder.append(",\"count\":").append(bean.getCount());
+    builder.append(",\"ratio\":").append(bean.getRatio());
+    builder.append(",\"enabled\":").append(bean.isEnabled());
+    builder.append(",\"tags\":[");
+
+    for(int i = 0; i < bean.getTags().size(); i++) {
+      if(i > 0) builder.append(',');
+
+      appendString(builder, bean.getTags().get(i));
+    }
+
+    return builder.append("]}").toString();
+  }
+
+  @Benchmark
+  public Bean getItemJsonConverter() {
+    final JsonConverter<Bean> converter = JsonConverters.forClass(Bean.class);
+
+    return converter.fromJson(Json.parse(json));
+  }
+
+  @Benchmark
+  public Bean getItemJsonHandWritten() {
+    final JsonObject object = Json.parse(json);
+    final JsonArray tagsArray = object.getArray("tags");
+    final List<String> tags = new ArrayList<>(tagsArray.length());
+
+    for(int i = 0; i < tagsArray.length(); i++) tags.add(tagsArray.getString(i));
+
+    final Bean result = new Bean();
+    result.setName(object.getString("name"));
+    result.setCount((int)object.getNumber("count"));
+    result.setRatio(object.getNumber("ratio"));
+    result.setEnabled(object.getBoolean("enabled"));
+    result.setTags(tags);
+
+    return result;
+  }
+
+  public static final class Bean {
+
+    public Bean() {
+      super();
+    }
+
+    private String name;
+
+    private int count;
+
+    private double ratio;
+
+    private boolean enabled;
+
+    private List<String> tags;
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(final String name) {
+      this.name = name;
+    }
+
+    public int getCount() {
+      return count;
+    }
+
+    public void setCount(final int count) {
+      this.count = count;
+    }
+
+    public double getRatio() {
+      return ratio;
+    }
+
+    public void setRatio(final double ratio) {
+      this.ratio = ratio;
+    }
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(final boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public List<String> getTags() {
+      return tags;
+    }
+
+    public void setTags(final List<String> tags) {
+      this.tags = tags;
+    }
+
+  }
+
+}
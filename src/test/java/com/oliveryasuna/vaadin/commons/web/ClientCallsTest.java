@@ -0,0 +1,122 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.oliveryasuna.vaadin.commons.web;
+
+import com.github.mvysny.kaributesting.v10.MockVaadin;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.internal.UIInternals;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ClientCallsTest {
+
+  private static final String DEFINITION = "window.__test=()=>1;";
+
+  private static final Map<String, String> DEFINITIONS = Map.of("test", DEFINITION);
+
+  /**
+   * Runs what happens before a response is written.
+   *
+   * @return The expressions the response would send.
+   */
+  private static List<String> respond() {
+    final UIInternals internals = UI.getCurrent().getInternals();
+
+    internals.getStateTree().runExecutionsBeforeClientResponse();
+
+    return internals.dumpPendingJavaScriptInvocations().stream()
+        .map(invocation -> invocation.getInvocation().getExpression())
+        .collect(Collectors.toList());
+  }
+
+  private static CompletableFuture<Integer> execute(final String expression) {
+    return ClientCalls.execute(UI.getCurrent(), "test", Integer.class, DEFINITIONS, expression);
+  }
+
+  @BeforeEach
+  void setUp() {
+    MockVaadin.setup();
+  }
+
+  @AfterEach
+  void tearDown() {
+    MockVaadin.tearDown();
+  }
+
+  @Test
+  void sendsDefinitionOnce() {
+    execute("return 1;");
+
+    assertEquals(List.of(DEFINITION + "return 1;"), respond());
+
+    execute("return 2;");
+
+    assertEquals(List.of("return 2;"), respond());
+  }
+
+  @Test
+  void cancellingFirstOfTwoCallsKeepsSharedDefinition() {
+    final CompletableFuture<Integer> first = execute("return 1;");
+
+    execute("return 2;");
+    first.cancel(false);
+
+    assertEquals(List.of(DEFINITION + "return 2;"), respond());
+
+    execute("return 3;");
+
+    assertEquals(List.of("return 3;"), respond());
+  }
+
+  @Test
+  void cancelledCallDoesNotInstallDefinition() {
+    execute("return 1;").cancel(false);
+
+    assertEquals(List.of(), respond());
+
+    execute("return 2;");
+
+    assertEquals(List.of(DEFINITION + "return 2;"), respond());
+  }
+
+  @Test
+  void callWithdrawnAfterMarkingUninstallsDefinition() {
+    final UI ui = UI.getCurrent();
+    final CompletableFuture<Integer> first = execute("return 1;");
+
+    // Runs after the callback that marks the definition as installed.
+    ui.beforeClientResponse(ui, context -> first.cancel(false));
+
+    assertEquals(List.of(), respond());
+
+    execute("return 2;");
+
+    assertEquals(List.of(DEFINITION + "return 2;"), respond());
+  }
+
+}
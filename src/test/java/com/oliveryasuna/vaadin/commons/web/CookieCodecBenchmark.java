@@ -0,0 +1,96 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.oliveryasuna.vaadin.commons.web;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link SignedCookieCodec} and {@link EncryptedCookieCodec}, with one codec shared by all threads, as in an application.
+ * <p>
+ * {@link #main(String[])} runs the benchmarks with 1, 4, 16 and 32 threads, to show whether the per-thread {@link javax.crypto.Mac}s and
+ * {@link javax.crypto.Cipher}s scale.
+ * Run it from an IDE, or with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.oliveryasuna.vaadin.commons.web.CookieCodecBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CookieCodecBenchmark {
+
+  public static void main(final String[] args) throws RunnerException {
+    for(final int threads : new int[] {1, 4, 16, 32}) {
+      new Runner(new OptionsBuilder().include(CookieCodecBenchmark.class.getSimpleName()).threads(threads).build()).run();
+    }
+  }
+
+  @Param({"signed", "encrypted"})
+  public String codecType;
+
+  @Param({"64", "1024"})
+  public int valueLength;
+
+  private CookieCodec codec;
+
+  private String value;
+
+  private String encodedValue;
+
+  @Setup
+  public void setUp() {
+    final Map<String, byte[]> keys = Map.of(
+        "k1", "old-aes-key-of-32-bytes-long-!!!".getBytes(StandardCharsets.US_ASCII),
+        "k2", "new-aes-key-of-32-bytes-long-!!!".getBytes(StandardCharsets.US_ASCII));
+
+    codec = (codecType.equals("signed") ? new SignedCookieCodec(keys, "k2") : new EncryptedCookieCodec(keys, "k2"));
+    value = "v".repeat(valueLength);
+    encodedValue = codec.encode("session", value);
+  }
+
+  @Benchmark
+  public String encode() {
+    return codec.encode("session", value);
+  }
+
+  @Benchmark
+  public String decode() {
+    return codec.decode("session", encodedValue);
+  }
+
+}
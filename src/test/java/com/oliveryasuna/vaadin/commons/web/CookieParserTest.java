@@ -0,0 +1,120 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.oliveryasuna.vaadin.commons.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CookieParserTest {
+
+  @Test
+  void parsesEmptyString() {
+    assertTrue(CookieParser.parse(null).isEmpty());
+    assertTrue(CookieParser.parse("").isEmpty());
+    assertTrue(CookieParser.parse(" ; ;").isEmpty());
+  }
+
+  @Test
+  void parsesPairsInOrder() {
+    final Map<String, String> cookies = CookieParser.parse("a=1; b=2;c=3");
+
+    assertEquals(List.of("a", "b", "c"), List.copyOf(cookies.keySet()));
+    assertEquals("1", cookies.get("a"));
+    assertEquals("2", cookies.get("b"));
+    assertEquals("3", cookies.get("c"));
+  }
+
+  @Test
+  void trimsNamesAndValues() {
+    assertEquals(Map.of("name", "value"), CookieParser.parse(" \tname \t= \tvalue\t ;"));
+  }
+
+  @Test
+  void keepsFirstValueOfDuplicateName() {
+    assertEquals(Map.of("a", "specific"), CookieParser.parse("a=specific; a=general"));
+  }
+
+  @Test
+  void keepsEqualsSignsInValue() {
+    assertEquals(Map.of("token", "a=b=="), CookieParser.parse("token=a=b=="));
+  }
+
+  @Test
+  void givesPairWithoutEqualsAnEmptyName() {
+    assertEquals(Map.of("", "flag", "a", "1"), CookieParser.parse("flag; a=1"));
+    assertEquals(Map.of("", ""), CookieParser.parse("=; a"));
+  }
+
+  @Test
+  void removesEnclosingQuotes() {
+    assertEquals("quoted value", CookieParser.decodeValue("\"quoted value\""));
+    assertEquals("\"", CookieParser.decodeValue("\""));
+    assertEquals("\"open", CookieParser.decodeValue("\"open"));
+  }
+
+  @Test
+  void percentDecodesUtf8() {
+    assertEquals("a b;c", CookieParser.decodeValue("a%20b%3Bc"));
+    assertEquals("Größe 😀", CookieParser.decodeValue("Gr%C3%B6%C3%9Fe%20%F0%9F%98%80"));
+    assertEquals("550%", CookieParser.decodeValue("%3550%25"));
+  }
+
+  @Test
+  void keepsMalformedEscapes() {
+    assertEquals("100%", CookieParser.decodeValue("100%"));
+    assertEquals("%zz%4", CookieParser.decodeValue("%zz%4"));
+    assertEquals("a%2", CookieParser.decodeValue("a%2"));
+  }
+
+  @Test
+  void findsValueByName() {
+    final String cookies = "session=abc; theme=%22dark%22; theme=light; flag";
+
+    assertEquals("abc", CookieParser.find(cookies, "session"));
+    assertEquals("\"dark\"", CookieParser.find(cookies, "theme"));
+    assertEquals("flag", CookieParser.find(cookies, ""));
+    assertNull(CookieParser.find(cookies, "them"));
+    assertNull(CookieParser.find(cookies, "missing"));
+    assertNull(CookieParser.find(null, "session"));
+  }
+
+  @Test
+  void findAgreesWithParse() {
+    final String cookies = " a = 1 ;b=\"two\"; c=%E2%82%AC;; d ; a=ignored";
+    final Map<String, String> parsed = CookieParser.parse(cookies);
+
+    for(final Map.Entry<String, String> entry : parsed.entrySet()) {
+      assertEquals(entry.getValue(), CookieParser.find(cookies, entry.getKey()));
+    }
+  }
+
+  @Test
+  void returnsUnmodifiableMap() {
+    assertThrows(UnsupportedOperationException.class, () -> CookieParser.parse("a=1").put("b", "2"));
+  }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.oliveryasuna.vaadin.commons.web;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CookieTemplateTest {
+
+  @Test
+  void keepsCookieOctetsAsIs() {
+    final String value = "abcXYZ019!#$&'()*+-./:<=>?@[]^_`{|}~";
+
+    assertSame(value, CookieTemplate.encodeValue(value));
+  }
+
+  @Test
+  void encodesForbiddenCharacters() {
+    assertEquals("a%20b", CookieTemplate.encodeValue("a b"));
+    assertEquals("%22quoted%22", CookieTemplate.encodeValue("\"quoted\""));
+    assertEquals("a%2Cb%3Bc%5Cd", CookieTemplate.encodeValue("a,b;c\\d"));
+    assertEquals("%09%7F", CookieTemplate.encodeValue("\t\u007F"));
+  }
+
+  @Test
+  void encodesPercentSign() {
+    assertEquals("100%25", CookieTemplate.encodeValue("100%"));
+  }
+
+  @Test
+  void encodesNonAsciiAsUtf8() {
+    assertEquals("Gr%C3%B6%C3%9Fe%20%F0%9F%98%80", CookieTemplate.encodeValue("Größe 😀"));
+  }
+
+  @Test
+  void roundTripsThroughParser() {
+    for(final String value : new String[] {"", "plain", "a b", "100%", "\"x\"", "a;b=c", "Größe 😀", "%41"}) {
+      assertEquals(value, CookieParser.decodeValue(CookieTemplate.encodeValue(value)));
+    }
+  }
+
+  @Test
+  void serializesDefaultTemplate() {
+    assertEquals("name=value", CookieTemplate.DEFAULT.toCookieString("name", "value"));
+    assertEquals("name=value", CookieTemplate.DEFAULT.toSetCookieHeader("name", "value"));
+  }
+
+  @Test
+  void serializesAttributesInOrder() {
+    final CookieTemplate template = CookieTemplate.DEFAULT
+        .withSecure(true)
+        .withSameSite(CookieTemplate.SameSite.STRICT)
+        .withMaxAge(3600)
+        .withDomain("example.com")
+        .withPath("/app");
+
+    assertEquals("n=v; Path=/app; Domain=example.com; Max-Age=3600; SameSite=Strict; Secure", template.toCookieString("n", "v"));
+  }
+
+  @Test
+  void omitsHttpOnlyFromClientString() {
+    final CookieTemplate template = CookieTemplate.DEFAULT.withPath("/").withHttpOnly(true);
+
+    assertEquals("n=v; Path=/", template.toCookieString("n", "v"));
+    assertEquals("n=v; Path=/; HttpOnly", template.toSetCookieHeader("n", "v"));
+  }
+
+  @Test
+  void leavesOriginalTemplateUnchanged() {
+    final CookieTemplate template = CookieTemplate.DEFAULT.withPath("/");
+
+    template.withPath("/other");
+
+    assertEquals("/", template.getPath());
+    assertNull(CookieTemplate.DEFAULT.getPath());
+  }
+
+  @Test
+  void rejectsHttpOnlyTemplateForClientSideCookie() {
+    final CookieTemplate template = CookieTemplate.DEFAULT.withHttpOnly(true);
+
+    assertThrows(IllegalArgumentException.class, () -> CookieSpec.withTemplate("n", "v", template));
+  }
+
+  @Test
+  void identifiesTemplatedCookieByNamePathAndDomain() {
+    final CookieTemplate template = CookieTemplate.DEFAULT.withPath("/app").withDomain("example.com").withMaxAge(10);
+
+    assertEquals("n;/app;example.com", CookieSpec.withTemplate("n", "v", template).getIdentity());
+    assertEquals("n=v%20w; Path=/app; Domain=example.com; Max-Age=10", CookieSpec.withTemplate("n", "v w", template).toCookieString());
+  }
+
+}
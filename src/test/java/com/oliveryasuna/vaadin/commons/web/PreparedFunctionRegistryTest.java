@@ -0,0 +1,120 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.oliveryasuna.vaadin.commons.web;
+
+import com.github.mvysny.kaributesting.v10.MockVaadin;
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.internal.UIInternals;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PreparedFunctionRegistryTest {
+
+  private static final PreparedFunction FUNCTION = new PreparedFunction(new String[] {"a"}, "return a+1;");
+
+  /**
+   * Runs what happens before a response is written.
+   *
+   * @return The expressions the response would send.
+   */
+  private static List<String> respond() {
+    final UIInternals internals = UI.getCurrent().getInternals();
+
+    internals.getStateTree().runExecutionsBeforeClientResponse();
+
+    return internals.dumpPendingJavaScriptInvocations().stream()
+        .map(invocation -> invocation.getInvocation().getExpression())
+        .collect(Collectors.toList());
+  }
+
+  private static boolean isInstalled() {
+    return PreparedFunctionRegistry.get(UI.getCurrent()).isInstalled(FUNCTION.getHandle());
+  }
+
+  @BeforeEach
+  void setUp() {
+    MockVaadin.setup();
+  }
+
+  @AfterEach
+  void tearDown() {
+    MockVaadin.tearDown();
+  }
+
+  @Test
+  void marksAndUnmarksHandles() {
+    final PreparedFunctionRegistry registry = PreparedFunctionRegistry.get(UI.getCurrent());
+
+    registry.markInstalled("handle");
+
+    assertTrue(registry.isInstalled("handle"));
+
+    registry.markUninstalled("handle");
+
+    assertFalse(registry.isInstalled("handle"));
+  }
+
+  @Test
+  void installsFunctionOnceSent() {
+    JavaScript.invoke(FUNCTION, Integer.class, 1);
+
+    assertFalse(isInstalled());
+    assertTrue(respond().get(0).startsWith(JavaScript.preparedFunctionDefinition(FUNCTION)));
+    assertTrue(isInstalled());
+
+    JavaScript.invoke(FUNCTION, Integer.class, 2);
+
+    assertEquals(List.of(JavaScript.preparedFunctionInvocation(FUNCTION, 1)), respond());
+  }
+
+  @Test
+  void cancelledInvocationDoesNotInstallFunction() {
+    JavaScript.invoke(FUNCTION, Integer.class, 1).cancel(false);
+
+    assertEquals(List.of(), respond());
+    assertFalse(isInstalled());
+
+    JavaScript.invoke(FUNCTION, Integer.class, 2);
+
+    assertTrue(respond().get(0).startsWith(JavaScript.preparedFunctionDefinition(FUNCTION)));
+  }
+
+  @Test
+  void detachDiscardsInstalledFunctions() {
+    JavaScript.invoke(FUNCTION, Integer.class, 1);
+    respond();
+
+    assertTrue(isInstalled());
+
+    ComponentUtil.onComponentDetach(UI.getCurrent());
+
+    assertFalse(isInstalled());
+  }
+
+}
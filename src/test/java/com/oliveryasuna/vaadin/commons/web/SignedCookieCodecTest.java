@@ -0,0 +1,117 @@
+/*
+ * Copyright 2022 Oliver Yasuna
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this software without
+ *      specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.oliveryasuna.vaadin.commons.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SignedCookieCodecTest {
+
+  private static final byte[] OLD_KEY = "old-secret-key-of-32-bytes-long!".getBytes(StandardCharsets.US_ASCII);
+
+  private static final byte[] NEW_KEY = "new-secret-key-of-32-bytes-long!".getBytes(StandardCharsets.US_ASCII);
+
+  private final SignedCookieCodec codec = new SignedCookieCodec(Map.of("k1", OLD_KEY), "k1");
+
+  @Test
+  void roundTripsValue() {
+    assertEquals("user=42; role=admin", codec.decode("session", codec.encode("session", "user=42; role=admin")));
+    assertEquals("Größe 😀", codec.decode("session", codec.encode("session", "Größe 😀")));
+    assertEquals("", codec.decode("session", codec.encode("session", "")));
+  }
+
+  @Test
+  void keepsValueReadable() {
+    final String encoded = codec.encode("session", "visible");
+
+    assertEquals("visible", new String(Base64.getUrlDecoder().decode(encoded.substring(0, encoded.indexOf('.'))), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void encodesOnlyCookieSafeCharacters() {
+    assertTrue(codec.encode("session", "a;b, \"c\"\\d").matches("[A-Za-z0-9_.-]+"));
+  }
+
+  @Test
+  void rejectsTamperedValue() {
+    final String encoded = codec.encode("session", "user");
+    final String forgedValue = Base64.getUrlEncoder().withoutPadding().encodeToString("admin".getBytes(StandardCharsets.UTF_8));
+
+    assertNull(codec.decode("session", forgedValue + encoded.substring(encoded.indexOf('.'))));
+  }
+
+  @Test
+  void rejectsTamperedSignature() {
+    final String encoded = codec.encode("session", "user");
+    // The last characters of unpadded Base64 may only hold padding bits.
+    final int index = encoded.length() - 10;
+    final char tampered = (encoded.charAt(index) == 'A' ? 'B' : 'A');
+
+    assertNull(codec.decode("session", encoded.substring(0, index) + tampered + encoded.substring(index + 1)));
+  }
+
+  @Test
+  void rejectsValueOfAnotherCookie() {
+    assertNull(codec.decode("other", codec.encode("session", "user")));
+  }
+
+  @Test
+  void rejectsMalformedValue() {
+    assertNull(codec.decode("session", null));
+    assertNull(codec.decode("session", ""));
+    assertNull(codec.decode("session", "no-dots"));
+    assertNull(codec.decode("session", "one.dot"));
+    assertNull(codec.decode("session", "!!!.k1.!!!"));
+  }
+
+  @Test
+  void decodesValuesOfPreviousKeyAfterRotation() {
+    final String oldEncoded = codec.encode("session", "user");
+    final SignedCookieCodec rotated = new SignedCookieCodec(Map.of("k1", OLD_KEY, "k2", NEW_KEY), "k2");
+    final String newEncoded = rotated.encode("session", "user");
+
+    assertTrue(newEncoded.contains(".k2."));
+    assertEquals("user", rotated.decode("session", oldEncoded));
+    assertEquals("user", rotated.decode("session", newEncoded));
+    assertNull(codec.decode("session", newEncoded));
+  }
+
+  @Test
+  void rejectsValueWithSwappedKeyId() {
+    final SignedCookieCodec rotated = new SignedCookieCodec(Map.of("k1", OLD_KEY, "k2", NEW_KEY), "k2");
+
+    assertNull(rotated.decode("session", codec.encode("session", "user").replace(".k1.", ".k2.")));
+  }
+
+  @Test
+  void rejectsInvalidKeyIds() {
+    assertThrows(IllegalArgumentException.class, () -> new SignedCookieCodec(Map.of("k.1", OLD_KEY), "k.1"));
+    assertThrows(IllegalArgumentException.class, () -> new SignedCookieCodec(Map.of("k1", OLD_KEY), "k2"));
+  }
+
+}